@@ -30,7 +30,7 @@ if ! command -v docker-compose &> /dev/null; then
 fi
 
 if ! command -v java &> /dev/null; then
-    echo -e "${RED}❌ Java is not installed. Please install Java 17 or higher.${NC}"
+    echo -e "${RED}❌ Java is not installed. Please install Java 21 or higher.${NC}"
     exit 1
 fi
 
@@ -51,8 +51,8 @@ DATABASE_URL=jdbc:postgresql://localhost:5432/authservice
 DATABASE_USERNAME=authservice_user
 DATABASE_PASSWORD=authservice_pass
 
-# JWT Configuration
-JWT_SECRET=YourSuperSecretKeyThatShouldBeAtLeast256BitsLongForHS256AlgorithmSecurity
+# JWT Configuration: the dev profile signs with an ephemeral ES256 key;
+# set JWT_KEYS_0_KID / JWT_KEYS_0_PRIVATE_KEY / JWT_KEYS_0_PUBLIC_KEY to keep tokens across restarts
 
 # Email Configuration (MailHog for local testing)
 MAIL_HOST=localhost
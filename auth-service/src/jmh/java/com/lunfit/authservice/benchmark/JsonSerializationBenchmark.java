@@ -0,0 +1,80 @@
+package com.lunfit.authservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.lunfit.authservice.dto.LoginResponse;
+import com.lunfit.authservice.dto.response.ErrorResponse;
+import com.lunfit.authservice.exception.ErrorBodies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response body serialization for the most frequent success and error responses,
+ * with error bodies both through Jackson and pre-serialized by {@link ErrorBodies}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private LoginResponse loginResponse;
+    private ErrorResponse errorResponse;
+    private ErrorBodies errorBodies;
+
+    @Setup
+    public void setUp() {
+        // Matches Spring Boot's defaults: JSR-310 module, ISO dates
+        objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        loginResponse = LoginResponse.builder()
+                .accessToken("eyJhbGciOiJFUzI1NiIsImtpZCI6ImsxIiwidHlwIjoiSldUIn0."
+                        + "eyJ1c2VySWQiOjQyLCJlbWFpbCI6InVzZXJAZXhhbXBsZS5jb20iLCJzdGF0dXMiOiJBQ1RJVkUifQ."
+                        + "MEUCIQDx9kZ0bS2m7Yt1fJp8wLr4nA6cHe5uGd0iKo3sTzEAiB")
+                .refreshToken("q3Vx9kZ0bS2m7Yt1fJp8wLr4nA6cHe5uGd0iKo3sTzE")
+                .tokenType("Bearer")
+                .expiresIn(3600)
+                .build();
+        errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(401)
+                .error("Unauthorized")
+                .message("Invalid email or password")
+                .path("/api/v1/auth/login")
+                .build();
+        errorBodies = new ErrorBodies();
+    }
+
+    @Benchmark
+    public byte[] loginResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(loginResponse);
+    }
+
+    @Benchmark
+    public byte[] errorResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(errorResponse);
+    }
+
+    @Benchmark
+    public byte[] errorResponsePreserialized() {
+        return errorBodies.body(HttpStatus.UNAUTHORIZED, "Invalid email or password", "/api/v1/auth/login");
+    }
+}
@@ -0,0 +1,119 @@
+package com.lunfit.authservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lunfit.authservice.config.JwtConfig;
+import com.lunfit.authservice.entity.User;
+import com.lunfit.authservice.security.JwtKeyRing;
+import com.lunfit.authservice.service.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token issue (login/refresh) and full verification (first sight of a token).
+ *
+ * The {@code *JjwtBuilder} / {@code *ParserPerCall} variants are the baseline:
+ * the generic jjwt builder with a claims map, and a parser built for every
+ * token, as JwtService did before the specialized path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final String KID = "benchmark";
+
+    private JwtService jwtService;
+    private PrivateKey privateKey;
+    private PublicKey publicKey;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair pair = generator.generateKeyPair();
+        privateKey = pair.getPrivate();
+        publicKey = pair.getPublic();
+
+        JwtConfig.SigningKey signingKey = new JwtConfig.SigningKey();
+        signingKey.setKid(KID);
+        signingKey.setPrivateKey(Base64.getEncoder().encodeToString(privateKey.getEncoded()));
+        signingKey.setPublicKey(Base64.getEncoder().encodeToString(publicKey.getEncoded()));
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setKeys(List.of(signingKey));
+
+        JwtKeyRing keyRing = new JwtKeyRing(jwtConfig, new ObjectMapper(), new StandardEnvironment());
+        jwtService = new JwtService(keyRing);
+        ReflectionTestUtils.setField(jwtService, "secret", "");
+        ReflectionTestUtils.setField(jwtService, "acceptLegacyHmac", false);
+        ReflectionTestUtils.setField(jwtService, "accessTokenExpiry", 3_600_000L);
+        ReflectionTestUtils.setField(jwtService, "refreshTokenExpiry", 2_592_000_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        token = generateAccessToken();
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(42L, "benchmark.user@example.com", User.UserStatus.ACTIVE);
+    }
+
+    @Benchmark
+    public Claims extractAllClaims() {
+        return jwtService.extractAllClaims(token);
+    }
+
+    @Benchmark
+    public String generateAccessTokenJjwtBuilder() {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("userId", 42L);
+        claims.put("email", "benchmark.user@example.com");
+        claims.put("status", User.UserStatus.ACTIVE.name());
+
+        Date now = new Date();
+        return Jwts.builder()
+                .header().keyId(KID).and()
+                .claims(claims)
+                .subject("benchmark.user@example.com")
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + 3_600_000L))
+                .signWith(privateKey, Jwts.SIG.ES256)
+                .compact();
+    }
+
+    @Benchmark
+    public Claims extractAllClaimsParserPerCall() {
+        return Jwts.parser()
+                .verifyWith(publicKey)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
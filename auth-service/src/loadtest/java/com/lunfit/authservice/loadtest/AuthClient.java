@@ -0,0 +1,110 @@
+package com.lunfit.authservice.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Blocking HTTP client for the auth endpoints. Every call is recorded in the
+ * current {@link LoadStats}, which the runner swaps between warmup and measurement.
+ *
+ * Callers pass the time the request was meant to start; in the open model that
+ * is the scheduled arrival, so time spent queued behind a slow service counts
+ * towards latency instead of being silently omitted.
+ */
+final class AuthClient {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private volatile LoadStats stats = new LoadStats();
+
+    AuthClient(int port) {
+        this.baseUrl = "http://127.0.0.1:" + port + "/api/v1/auth";
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    void recordInto(LoadStats stats) {
+        this.stats = stats;
+    }
+
+    LoadStats stats() {
+        return stats;
+    }
+
+    int register(String email, String password, long startNanos) throws InterruptedException {
+        return post(Endpoint.REGISTER, "/register", credentials(email, password), startNanos);
+    }
+
+    int login(String email, String password, long startNanos) throws InterruptedException {
+        return post(Endpoint.LOGIN, "/login", credentials(email, password), startNanos);
+    }
+
+    /**
+     * A login that appears to come from {@code clientIp}; the service must trust
+     * X-Forwarded-For from loopback ({@code server.forward-headers-strategy=native}).
+     */
+    int login(Endpoint endpoint, String email, String password, String clientIp, long startNanos)
+            throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("X-Forwarded-For", clientIp)
+                .POST(HttpRequest.BodyPublishers.ofString(credentials(email, password)))
+                .build();
+        return send(endpoint, request, startNanos);
+    }
+
+    int resend(String email, long startNanos) throws InterruptedException {
+        return post(Endpoint.RESEND, "/verify/resend", "{\"email\":\"" + email + "\"}", startNanos);
+    }
+
+    int verify(String token, long startNanos) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(
+                        URI.create(baseUrl + "/verify?token=" + URLEncoder.encode(token, StandardCharsets.UTF_8)))
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+        return send(Endpoint.VERIFY, request, startNanos);
+    }
+
+    private int post(Endpoint endpoint, String path, String json, long startNanos) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return send(endpoint, request, startNanos);
+    }
+
+    /**
+     * @return the HTTP status, or -1 if no response was received
+     */
+    private int send(Endpoint endpoint, HttpRequest request, long startNanos) throws InterruptedException {
+        LoadStats current = stats;
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            current.record(endpoint, response.statusCode(), System.nanoTime() - startNanos);
+            return response.statusCode();
+        } catch (IOException e) {
+            current.recordFailure(endpoint, System.nanoTime() - startNanos);
+            return -1;
+        }
+    }
+
+    // Generated emails and the fixed passwords contain nothing that needs JSON escaping
+    private static String credentials(String email, String password) {
+        return "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}";
+    }
+}
@@ -0,0 +1,78 @@
+package com.lunfit.authservice.loadtest;
+
+import com.icegreen.greenmail.util.GreenMail;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Measures outbox delivery throughput on its own: queues {@code size} verification
+ * emails in one statement, bypassing registration and BCrypt, and times how long
+ * the dispatcher takes to hand them all to the SMTP sink. Afterwards every
+ * recipient must have received exactly one message.
+ */
+@Slf4j
+final class EmailBurst {
+
+    // One nextval per row: each call reserves a whole pooled block, so Hibernate's ids cannot collide
+    private static final String ENQUEUE = """
+            WITH burst_users AS (
+                INSERT INTO users (id, email)
+                SELECT nextval('users_id_seq'), 'burst' || ? || '-' || g || '@loadtest.example.com'
+                  FROM generate_series(1, ?) g
+                RETURNING id, email)
+            INSERT INTO email_outbox (id, user_id, recipient, email_type, payload)
+            SELECT nextval('email_outbox_id_seq'), id, email, 'VERIFICATION', 'burst-' || id
+              FROM burst_users
+            """;
+    private static final long POLL_MILLIS = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final GreenMail greenMail;
+
+    EmailBurst(JdbcTemplate jdbcTemplate, GreenMail greenMail) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.greenMail = greenMail;
+    }
+
+    /**
+     * @return true if every queued email was delivered exactly once within {@code timeout}
+     */
+    boolean run(int size, Duration timeout) throws InterruptedException, MessagingException {
+        int before = greenMail.getReceivedMessages().length;
+        String burstId = Long.toString(System.currentTimeMillis(), 36);
+
+        long start = System.nanoTime();
+        jdbcTemplate.update(ENQUEUE, burstId, size);
+        long deadline = start + timeout.toNanos();
+        int delivered;
+        while ((delivered = greenMail.getReceivedMessages().length - before) < size && System.nanoTime() < deadline) {
+            Thread.sleep(POLL_MILLIS);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        // Give duplicates from a redelivery a moment to show up before counting recipients
+        Thread.sleep(Duration.ofSeconds(2));
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        Set<String> recipients = new HashSet<>();
+        int duplicates = 0;
+        for (int i = before; i < received.length; i++) {
+            if (!recipients.add(received[i].getRecipients(Message.RecipientType.TO)[0].toString())) {
+                duplicates++;
+            }
+        }
+        int missing = size - recipients.size();
+
+        System.out.printf(Locale.ROOT, "%d of %d emails delivered in %.2fs: %.1f emails/s%n",
+                Math.min(delivered, size), size, seconds, Math.min(delivered, size) / seconds);
+        System.out.printf(Locale.ROOT, "%d missing, %d duplicates%n", missing, duplicates);
+        return missing == 0 && duplicates == 0;
+    }
+}
@@ -0,0 +1,66 @@
+package com.lunfit.authservice.loadtest;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetup;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+
+/**
+ * In-process PostgreSQL and SMTP sink, each on a free loopback port.
+ *
+ * PostgreSQL runs from the embedded binaries with its default durability
+ * settings relaxed (no fsync), so absolute numbers are optimistic; use the
+ * harness to compare runs with each other, not to size production.
+ */
+@Slf4j
+final class EmbeddedInfrastructure implements AutoCloseable {
+
+    private final EmbeddedPostgres postgres;
+    private final GreenMail greenMail;
+
+    private EmbeddedInfrastructure(EmbeddedPostgres postgres, GreenMail greenMail) {
+        this.postgres = postgres;
+        this.greenMail = greenMail;
+    }
+
+    static EmbeddedInfrastructure start() throws IOException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder()
+                .setServerConfig("max_connections", "200")
+                .start();
+        log.info("Embedded PostgreSQL listening on port {}", postgres.getPort());
+
+        GreenMail greenMail = new GreenMail(new ServerSetup(freePort(), "127.0.0.1", ServerSetup.PROTOCOL_SMTP));
+        greenMail.start();
+        log.info("SMTP sink listening on port {}", greenMail.getSmtp().getPort());
+
+        return new EmbeddedInfrastructure(postgres, greenMail);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    String jdbcUrl() {
+        return postgres.getJdbcUrl("postgres", "postgres");
+    }
+
+    int smtpPort() {
+        return greenMail.getSmtp().getPort();
+    }
+
+    GreenMail greenMail() {
+        return greenMail;
+    }
+
+    @Override
+    public void close() throws IOException {
+        greenMail.stop();
+        postgres.close();
+    }
+}
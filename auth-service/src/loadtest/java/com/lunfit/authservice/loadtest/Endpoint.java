@@ -0,0 +1,24 @@
+package com.lunfit.authservice.loadtest;
+
+/**
+ * What latency is reported for. {@link #MAIL_DELIVERY} is not a request: it is
+ * the time from a successful registration until its email reaches the sink.
+ */
+enum Endpoint {
+    REGISTER("POST /register"),
+    VERIFY("GET /verify"),
+    LOGIN("POST /login"),
+    STUFFING_LOGIN("POST /login (attack)"),
+    RESEND("POST /verify/resend"),
+    MAIL_DELIVERY("email delivery");
+
+    private final String label;
+
+    Endpoint(String label) {
+        this.label = label;
+    }
+
+    String label() {
+        return label;
+    }
+}
@@ -0,0 +1,101 @@
+package com.lunfit.authservice.loadtest;
+
+import com.lunfit.authservice.loadtest.LoadTestOptions.Model;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Repeats an iteration for a fixed time under a closed or open workload model.
+ * Both models run every user on a virtual thread, so the harness itself is
+ * not limited by a client-side thread pool.
+ */
+@Slf4j
+final class LoadDriver {
+
+    private final LoadTestOptions options;
+
+    LoadDriver(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Returns once the time is up and every started iteration has finished.
+     */
+    void run(Workloads.Iteration iteration, Duration duration, LoadStats stats) {
+        if (options.model() == Model.CLOSED) {
+            runClosed(iteration, duration);
+        } else {
+            runOpen(iteration, duration, stats);
+        }
+    }
+
+    /**
+     * {@code users} concurrent users, each starting its next iteration when the
+     * previous one (and the think time) is over. Throughput is whatever the
+     * service sustains at that concurrency.
+     */
+    private void runClosed(Workloads.Iteration iteration, Duration duration) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        long thinkNanos = options.thinkTime().toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.users(); i++) {
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        runSafely(iteration, System.nanoTime());
+                        if (thinkNanos > 0) {
+                            LockSupport.parkNanos(thinkNanos);
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    /**
+     * Iterations start at {@code rate} per second on a fixed schedule, each on its
+     * own virtual thread, however long earlier ones take. Latency is measured from
+     * the scheduled start. Arrivals beyond {@code max-in-flight} are counted as
+     * dropped rather than queued, which would hide the overload.
+     */
+    private void runOpen(Workloads.Iteration iteration, Duration duration, LoadStats stats) {
+        long intervalNanos = (long) (1_000_000_000L / options.rate());
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long next = start; next < deadline; next += intervalNanos) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (!inFlight.tryAcquire()) {
+                    stats.recordDropped();
+                    continue;
+                }
+                long intendedStart = next;
+                executor.submit(() -> {
+                    try {
+                        runSafely(iteration, intendedStart);
+                    } finally {
+                        inFlight.release();
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    private static void runSafely(Workloads.Iteration iteration, long intendedStartNanos) throws InterruptedException {
+        try {
+            iteration.run(intendedStartNanos);
+        } catch (RuntimeException e) {
+            log.warn("Iteration failed: {}", e.getMessage());
+        }
+    }
+}
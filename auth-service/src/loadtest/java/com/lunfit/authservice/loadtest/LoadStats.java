@@ -0,0 +1,142 @@
+package com.lunfit.authservice.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histograms and outcome counts per endpoint for one measurement window.
+ * Latencies are recorded in microseconds, up to a minute, with three significant digits.
+ */
+final class LoadStats {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<Endpoint, EndpointStats> endpoints = new EnumMap<>(Endpoint.class);
+    private final LongAdder dropped = new LongAdder();
+    private final long startedAt = System.nanoTime();
+    private volatile long stoppedAt;
+
+    LoadStats() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            endpoints.put(endpoint, new EndpointStats());
+        }
+    }
+
+    void record(Endpoint endpoint, int status, long latencyNanos) {
+        EndpointStats stats = endpoints.get(endpoint);
+        stats.record(latencyNanos);
+        if (status < 300) {
+            stats.success.increment();
+        } else if (status == 429) {
+            stats.rateLimited.increment();
+        } else if (status < 500) {
+            stats.clientErrors.increment();
+        } else {
+            stats.serverErrors.increment();
+        }
+    }
+
+    /**
+     * A request that got no HTTP response (connect failure, timeout), or an email
+     * that never arrived.
+     */
+    void recordFailure(Endpoint endpoint, long latencyNanos) {
+        EndpointStats stats = endpoints.get(endpoint);
+        stats.record(latencyNanos);
+        stats.transportErrors.increment();
+    }
+
+    /**
+     * An open-model iteration that was not started because too many were still in flight.
+     */
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    long requests(Endpoint endpoint) {
+        return endpoints.get(endpoint).latency.getTotalCount();
+    }
+
+    long rateLimited(Endpoint endpoint) {
+        return endpoints.get(endpoint).rateLimited.sum();
+    }
+
+    void stop() {
+        stoppedAt = System.nanoTime();
+    }
+
+    void report(PrintStream out) {
+        double seconds = ((stoppedAt != 0 ? stoppedAt : System.nanoTime()) - startedAt) / 1e9;
+        out.printf(Locale.ROOT, "%-20s %9s %9s %9s %9s %9s %9s %8s %8s %8s %8s %8s %7s%n",
+                "endpoint", "count", "per sec", "p50 ms", "p99 ms", "p99.9 ms", "max ms",
+                "2xx", "4xx", "429", "5xx", "no resp", "err %");
+        endpoints.forEach((endpoint, stats) -> {
+            Histogram histogram = stats.latency;
+            long count = histogram.getTotalCount();
+            if (count == 0) {
+                return;
+            }
+            long errors = stats.serverErrors.sum() + stats.transportErrors.sum();
+            out.printf(Locale.ROOT, "%-20s %9d %9.1f %9.2f %9.2f %9.2f %9.2f %8d %8d %8d %8d %8d %7.2f%n",
+                    endpoint.label(), count, count / seconds,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()),
+                    stats.success.sum(), stats.clientErrors.sum(), stats.rateLimited.sum(),
+                    stats.serverErrors.sum(), stats.transportErrors.sum(),
+                    100.0 * errors / count);
+        });
+        if (dropped.sum() > 0) {
+            out.printf(Locale.ROOT, "%d iterations not started: the in-flight limit was reached%n", dropped.sum());
+        }
+        out.println("err % counts 5xx and requests without a response; 4xx and 429 are expected outcomes.");
+    }
+
+    /**
+     * Writes each endpoint's full percentile distribution as an .hgrm file, which
+     * HdrHistogram's plotter can overlay to compare runs.
+     */
+    void writeDistributions(Path directory, String runName) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<Endpoint, EndpointStats> entry : endpoints.entrySet()) {
+            Histogram histogram = entry.getValue().latency;
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            String file = runName + "-" + entry.getKey().name().toLowerCase(Locale.ROOT).replace('_', '-') + ".hgrm";
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(file)))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    private static final class EndpointStats {
+
+        private final Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder success = new LongAdder();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder rateLimited = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LongAdder transportErrors = new LongAdder();
+
+        void record(long latencyNanos) {
+            long micros = Math.max(1, TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+            latency.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+        }
+    }
+}
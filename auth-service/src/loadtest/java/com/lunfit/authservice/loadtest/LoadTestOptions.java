@@ -0,0 +1,155 @@
+package com.lunfit.authservice.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command line of the load test. Harness options use a single dash
+ * ({@code -scenario=login-storm}); double-dash arguments are passed to the
+ * application unchanged ({@code --spring.threads.virtual.enabled=true}).
+ */
+record LoadTestOptions(
+        Scenario scenario,
+        Model model,
+        int users,
+        double rate,
+        int maxInFlight,
+        Duration thinkTime,
+        Duration warmup,
+        Duration duration,
+        int accounts,
+        double wrongPasswordRatio,
+        double unknownEmailRatio,
+        double legitimateRatio,
+        Map<Scenario, Integer> mix,
+        int raceRounds,
+        int raceConcurrency,
+        int burstSize,
+        Duration mailTimeout,
+        Path output,
+        List<String> applicationArgs) {
+
+    enum Scenario {
+        /** register, then verify with the emailed link, then log in */
+        JOURNEY,
+        /** logins against seeded accounts, with wrong passwords and unknown emails mixed in */
+        LOGIN_STORM,
+        /** resends hammering a small set of unverified accounts */
+        RESEND_ABUSE,
+        /** weighted mix of the three above */
+        MIXED,
+        /** the same verification link followed concurrently; exactly one may succeed */
+        VERIFY_RACE,
+        /** a burst of queued emails drained by the outbox dispatcher, measured in emails/s */
+        EMAIL_BURST,
+        /**
+         * failed logins from many distinct addresses, with legitimate logins from their
+         * own addresses mixed in; the stuffing-shield thresholds keep their defaults
+         */
+        STUFFING_WAVE;
+
+        static Scenario parse(String value) {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    enum Model {
+        /** a fixed number of users, each starting its next iteration when the last one ends */
+        CLOSED,
+        /** iterations start at a fixed rate regardless of how fast the service responds */
+        OPEN
+    }
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                applicationArgs.add(arg);
+            } else if (arg.startsWith("-") && arg.indexOf('=') > 1) {
+                int eq = arg.indexOf('=');
+                values.put(arg.substring(1, eq), arg.substring(eq + 1));
+            } else if (!arg.isBlank()) {
+                throw new IllegalArgumentException("Unrecognized argument: " + arg);
+            }
+        }
+
+        LoadTestOptions options = new LoadTestOptions(
+                Scenario.parse(values.getOrDefault("scenario", "mixed")),
+                Model.valueOf(values.getOrDefault("model", "closed").toUpperCase(Locale.ROOT)),
+                Integer.parseInt(values.getOrDefault("users", "50")),
+                Double.parseDouble(values.getOrDefault("rate", "100")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "2000")),
+                parseDuration(values.getOrDefault("think-time", "0ms")),
+                parseDuration(values.getOrDefault("warmup", "15s")),
+                parseDuration(values.getOrDefault("duration", "60s")),
+                Integer.parseInt(values.getOrDefault("accounts", "200")),
+                Double.parseDouble(values.getOrDefault("wrong-password-ratio", "0.1")),
+                Double.parseDouble(values.getOrDefault("unknown-email-ratio", "0.05")),
+                Double.parseDouble(values.getOrDefault("legitimate-ratio", "0.1")),
+                parseMix(values.getOrDefault("mix", "journey:10,login-storm:80,resend-abuse:10")),
+                Integer.parseInt(values.getOrDefault("race-rounds", "50")),
+                Integer.parseInt(values.getOrDefault("race-concurrency", "16")),
+                Integer.parseInt(values.getOrDefault("burst-size", "2000")),
+                parseDuration(values.getOrDefault("mail-timeout", "30s")),
+                Path.of(values.getOrDefault("output", "target/loadtest")),
+                List.copyOf(applicationArgs));
+
+        values.keySet().removeAll(List.of("scenario", "model", "users", "rate", "max-in-flight",
+                "think-time", "warmup", "duration", "accounts", "wrong-password-ratio",
+                "unknown-email-ratio", "legitimate-ratio", "mix", "race-rounds", "race-concurrency", "burst-size", "mail-timeout", "output"));
+        if (!values.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        }
+        return options;
+    }
+
+    /**
+     * Accepts 500ms, 30s, 2m or a bare number of seconds.
+     */
+    static Duration parseDuration(String value) {
+        String v = value.trim().toLowerCase(Locale.ROOT);
+        if (v.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        }
+        if (v.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        if (v.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(v));
+    }
+
+    private static Map<Scenario, Integer> parseMix(String value) {
+        Map<Scenario, Integer> mix = new LinkedHashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split(":");
+            Scenario scenario = Scenario.parse(parts[0]);
+            if (scenario == Scenario.MIXED || scenario == Scenario.VERIFY_RACE || scenario == Scenario.EMAIL_BURST
+                    || scenario == Scenario.STUFFING_WAVE) {
+                throw new IllegalArgumentException(parts[0] + " cannot be part of the mix");
+            }
+            mix.put(scenario, Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+
+    String describe() {
+        String load = model == Model.CLOSED
+                ? users + " users, think time " + thinkTime.toMillis() + "ms"
+                : rate + " iterations/s, at most " + maxInFlight + " in flight";
+        String name = scenario.name().toLowerCase(Locale.ROOT).replace('_', '-');
+        return switch (scenario) {
+            case VERIFY_RACE -> name + ", " + raceRounds + " rounds x " + raceConcurrency + " concurrent verifies";
+            case EMAIL_BURST -> name + ", " + burstSize + " emails";
+            default -> name + ", " + model.name().toLowerCase(Locale.ROOT) + " model, " + load
+                    + ", warmup " + warmup.toSeconds() + "s, measured " + duration.toSeconds() + "s";
+        };
+    }
+}
@@ -0,0 +1,182 @@
+package com.lunfit.authservice.loadtest;
+
+import com.lunfit.authservice.AuthServiceApplication;
+import com.lunfit.authservice.loadtest.LoadTestOptions.Scenario;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Boots the service against {@link EmbeddedInfrastructure} in this JVM and drives
+ * one scenario through its HTTP API. See the Load Testing section of the README.
+ *
+ * The whole run comes from loopback, so the per-IP rate limits and the
+ * per-IP/network stuffing thresholds are lifted; per-email limits stay in force.
+ * The stuffing-wave scenario instead keeps the shield's defaults and sends each
+ * login with its own X-Forwarded-For address.
+ */
+@Slf4j
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        System.setProperty("spring.devtools.restart.enabled", "false");
+
+        int exitCode;
+        try (EmbeddedInfrastructure infrastructure = EmbeddedInfrastructure.start();
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(AuthServiceApplication.class)
+                     .run(applicationArgs(options, infrastructure))) {
+            exitCode = run(options, context, infrastructure);
+        }
+        System.exit(exitCode);
+    }
+
+    private static int run(LoadTestOptions options, ConfigurableApplicationContext context,
+                           EmbeddedInfrastructure infrastructure) throws Exception {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        AuthClient client = new AuthClient(port);
+        Workloads workloads = new Workloads(client, new Mailbox(infrastructure.greenMail()), options);
+        String runName = runName(options, context.getEnvironment());
+        log.info("Load test {}: {}", runName, options.describe());
+
+        if (options.scenario() == Scenario.VERIFY_RACE) {
+            LoadStats stats = new LoadStats();
+            client.recordInto(stats);
+            int violations = workloads.verifyRace(options.raceRounds(), options.raceConcurrency());
+            stats.stop();
+            report(options, runName, stats);
+            System.out.printf(Locale.ROOT, "%d of %d links broke the single-use guarantee%n",
+                    violations, options.raceRounds());
+            return violations == 0 ? 0 : 1;
+        }
+
+        if (options.scenario() == Scenario.EMAIL_BURST) {
+            System.out.println();
+            System.out.println("== " + runName + ": " + options.describe());
+            boolean delivered = new EmailBurst(context.getBean(JdbcTemplate.class), infrastructure.greenMail())
+                    .run(options.burstSize(), options.mailTimeout());
+            return delivered ? 0 : 1;
+        }
+
+        workloads.seed(options.scenario());
+        Workloads.Iteration iteration = workloads.forScenario(options.scenario());
+        LoadDriver driver = new LoadDriver(options);
+
+        if (!options.warmup().isZero()) {
+            log.info("Warming up for {}s", options.warmup().toSeconds());
+            LoadStats warmup = new LoadStats();
+            client.recordInto(warmup);
+            driver.run(iteration, options.warmup(), warmup);
+        }
+
+        log.info("Measuring for {}s", options.duration().toSeconds());
+        LoadStats stats = new LoadStats();
+        client.recordInto(stats);
+        driver.run(iteration, options.duration(), stats);
+        stats.stop();
+
+        report(options, runName, stats);
+
+        if (options.scenario() == Scenario.STUFFING_WAVE) {
+            long turnedAway = stats.rateLimited(Endpoint.LOGIN);
+            System.out.printf(Locale.ROOT, "%d of %d legitimate logins were turned away during the wave%n",
+                    turnedAway, stats.requests(Endpoint.LOGIN));
+            return turnedAway == 0 ? 0 : 1;
+        }
+        return 0;
+    }
+
+    private static void report(LoadTestOptions options, String runName, LoadStats stats) throws Exception {
+        System.out.println();
+        System.out.println("== " + runName + ": " + options.describe());
+        stats.report(System.out);
+        stats.writeDistributions(options.output(), runName);
+        System.out.println("Percentile distributions written to " + options.output().toAbsolutePath());
+    }
+
+    private static String[] applicationArgs(LoadTestOptions options, EmbeddedInfrastructure infrastructure)
+            throws GeneralSecurityException {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", infrastructure.jdbcUrl());
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "postgres");
+        properties.put("spring.mail.host", "127.0.0.1");
+        properties.put("spring.mail.port", Integer.toString(infrastructure.smtpPort()));
+        properties.put("server.port", "0");
+        properties.put("management.server.port", "0");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.com.lunfit.authservice", "WARN");
+        properties.put("logging.level.com.lunfit.authservice.loadtest", "INFO");
+        properties.put("app.verification-links.secret", UUID.randomUUID().toString());
+        putSigningKey(properties);
+        properties.put("app.rate-limit.login-per-ip-per-minute", Integer.toString(Integer.MAX_VALUE));
+        properties.put("app.rate-limit.register-per-ip-per-hour", Integer.toString(Integer.MAX_VALUE));
+        properties.put("app.rate-limit.resend-per-ip", Integer.toString(Integer.MAX_VALUE));
+        if (options.scenario() == Scenario.STUFFING_WAVE) {
+            properties.put("server.forward-headers-strategy", "native");
+        } else {
+            properties.put("app.stuffing-shield.ip-threshold", Integer.toString(Integer.MAX_VALUE));
+            properties.put("app.stuffing-shield.network-threshold", Integer.toString(Integer.MAX_VALUE));
+        }
+
+        // Explicit --key=value arguments win over the harness defaults
+        for (String arg : options.applicationArgs()) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                properties.put(arg.substring(2), "true");
+            } else {
+                properties.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return properties.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+    }
+
+    /**
+     * A fresh ES256 key per run, since the service only falls back to an ephemeral key under the dev profile.
+     */
+    private static void putSigningKey(Map<String, String> properties) throws GeneralSecurityException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair pair = generator.generateKeyPair();
+        properties.put("jwt.keys[0].kid", "loadtest");
+        properties.put("jwt.keys[0].private-key", Base64.getEncoder().encodeToString(pair.getPrivate().getEncoded()));
+        properties.put("jwt.keys[0].public-key", Base64.getEncoder().encodeToString(pair.getPublic().getEncoded()));
+    }
+
+    /**
+     * Names a run after what is usually compared between runs, e.g.
+     * {@code mixed-closed-table-platform}.
+     */
+    private static String runName(LoadTestOptions options, Environment environment) {
+        String scenario = options.scenario().name().toLowerCase(Locale.ROOT).replace('_', '-');
+        if (options.scenario() == Scenario.VERIFY_RACE) {
+            return scenario + "-" + environment.getProperty("app.verification-links.mode", "table");
+        }
+        if (options.scenario() == Scenario.EMAIL_BURST) {
+            return scenario + "-" + environment.getProperty("app.email.sending-mode", "pooled");
+        }
+        return scenario
+                + "-" + options.model().name().toLowerCase(Locale.ROOT)
+                + "-" + environment.getProperty("app.verification-links.mode", "table")
+                + "-" + (environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)
+                    ? "virtual" : "platform");
+    }
+}
@@ -0,0 +1,104 @@
+package com.lunfit.authservice.loadtest;
+
+import com.icegreen.greenmail.imap.ImapHostManager;
+import com.icegreen.greenmail.store.FolderException;
+import com.icegreen.greenmail.store.StoredMessage;
+import com.icegreen.greenmail.user.GreenMailUser;
+import com.icegreen.greenmail.util.GreenMail;
+import jakarta.mail.BodyPart;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Multipart;
+import jakarta.mail.Part;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads verification links out of the SMTP sink. Every generated address gets
+ * its own mailbox, so a lookup only ever looks at that user's messages.
+ */
+final class Mailbox {
+
+    private static final Pattern TOKEN = Pattern.compile("[?&]token=([^\"'&<>\\s]+)");
+    private static final long POLL_NANOS = Duration.ofMillis(10).toNanos();
+
+    private final GreenMail greenMail;
+    private final ImapHostManager hostManager;
+
+    Mailbox(GreenMail greenMail) {
+        this.greenMail = greenMail;
+        this.hostManager = greenMail.getManagers().getImapHostManager();
+    }
+
+    int messageCount(String email) {
+        return messages(email).size();
+    }
+
+    /**
+     * Waits for message number {@code previouslySeen + 1} to reach the address and
+     * returns the token of its verification link.
+     *
+     * @return the token, or null if no such email arrived in time
+     */
+    String awaitVerificationToken(String email, int previouslySeen, Duration timeout)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            List<StoredMessage> messages = messages(email);
+            if (messages.size() > previouslySeen) {
+                return extractToken(messages.get(messages.size() - 1));
+            }
+            if (System.nanoTime() > deadline) {
+                return null;
+            }
+            Thread.sleep(Duration.ofNanos(POLL_NANOS));
+        }
+    }
+
+    private List<StoredMessage> messages(String email) {
+        GreenMailUser user = greenMail.getUserManager().getUserByEmail(email);
+        if (user == null) {
+            return List.of();
+        }
+        try {
+            return hostManager.getInbox(user).getMessages();
+        } catch (FolderException e) {
+            throw new IllegalStateException("Unable to read mailbox of " + email, e);
+        }
+    }
+
+    private static String extractToken(StoredMessage message) {
+        try {
+            String html = findHtml(message.getMimeMessage());
+            Matcher matcher = html != null ? TOKEN.matcher(html) : null;
+            if (matcher == null || !matcher.find()) {
+                throw new IllegalStateException("Verification email without a verification link");
+            }
+            return URLDecoder.decode(matcher.group(1), StandardCharsets.UTF_8);
+        } catch (MessagingException | IOException e) {
+            throw new IllegalStateException("Unable to read verification email", e);
+        }
+    }
+
+    private static String findHtml(Part part) throws MessagingException, IOException {
+        if (part.isMimeType("text/html")) {
+            return (String) part.getContent();
+        }
+        if (part.isMimeType("multipart/*")) {
+            Multipart multipart = (Multipart) part.getContent();
+            for (int i = 0; i < multipart.getCount(); i++) {
+                BodyPart bodyPart = multipart.getBodyPart(i);
+                String html = findHtml(bodyPart);
+                if (html != null) {
+                    return html;
+                }
+            }
+        }
+        return null;
+    }
+}
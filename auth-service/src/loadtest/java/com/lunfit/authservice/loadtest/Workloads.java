@@ -0,0 +1,256 @@
+package com.lunfit.authservice.loadtest;
+
+import com.lunfit.authservice.loadtest.LoadTestOptions.Scenario;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The user behaviour the drivers repeat. Each iteration is one user action
+ * sequence, started at the time the driver intended.
+ */
+@Slf4j
+final class Workloads {
+
+    static final String PASSWORD = "LoadTest123!";
+    private static final String WRONG_PASSWORD = "WrongPass123!";
+
+    @FunctionalInterface
+    interface Iteration {
+        void run(long intendedStartNanos) throws InterruptedException;
+    }
+
+    private final AuthClient client;
+    private final Mailbox mailbox;
+    private final LoadTestOptions options;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+
+    private List<String> verifiedAccounts = List.of();
+    private List<String> unverifiedAccounts = List.of();
+
+    Workloads(AuthClient client, Mailbox mailbox, LoadTestOptions options) {
+        this.client = client;
+        this.mailbox = mailbox;
+        this.options = options;
+    }
+
+    Iteration forScenario(Scenario scenario) {
+        return switch (scenario) {
+            case JOURNEY -> this::journey;
+            case LOGIN_STORM -> this::loginStorm;
+            case RESEND_ABUSE -> this::resendAbuse;
+            case MIXED -> mixed(options.mix());
+            case STUFFING_WAVE -> this::stuffingWave;
+            case VERIFY_RACE, EMAIL_BURST -> throw new IllegalArgumentException(
+                    scenario.name().toLowerCase(Locale.ROOT).replace('_', '-') + " is not driven by a load model");
+        };
+    }
+
+    /**
+     * Registers the accounts the scenario needs before measurement starts:
+     * verified ones to log in with, and unverified ones to request resends for.
+     */
+    void seed(Scenario scenario) throws InterruptedException {
+        boolean logins = scenario == Scenario.LOGIN_STORM || scenario == Scenario.STUFFING_WAVE
+                || scenario == Scenario.MIXED && options.mix().containsKey(Scenario.LOGIN_STORM);
+        boolean resends = scenario == Scenario.RESEND_ABUSE
+                || scenario == Scenario.MIXED && options.mix().containsKey(Scenario.RESEND_ABUSE);
+        if (logins) {
+            verifiedAccounts = seedAccounts(options.accounts(), true);
+        }
+        if (resends) {
+            // Few accounts, so the per-email resend limit is actually reached
+            unverifiedAccounts = seedAccounts(Math.max(1, options.accounts() / 10), false);
+        }
+    }
+
+    private List<String> seedAccounts(int count, boolean verify) throws InterruptedException {
+        log.info("Seeding {} {} accounts", count, verify ? "verified" : "unverified");
+        List<String> accounts = Collections.synchronizedList(new ArrayList<>(count));
+        Semaphore concurrency = new Semaphore(32);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < count; i++) {
+                concurrency.acquire();
+                executor.submit(() -> {
+                    try {
+                        String email = nextEmail();
+                        if (client.register(email, PASSWORD, System.nanoTime()) != 201) {
+                            return null;
+                        }
+                        if (verify) {
+                            String token = mailbox.awaitVerificationToken(email, 0, options.mailTimeout());
+                            if (token == null || client.verify(token, System.nanoTime()) != 200) {
+                                return null;
+                            }
+                        }
+                        accounts.add(email);
+                        return null;
+                    } finally {
+                        concurrency.release();
+                    }
+                });
+            }
+        }
+        if (accounts.size() < count) {
+            log.warn("Only {} of {} accounts could be seeded", accounts.size(), count);
+        }
+        if (accounts.isEmpty()) {
+            throw new IllegalStateException("No accounts could be seeded; see the application log");
+        }
+        return List.copyOf(accounts);
+    }
+
+    /**
+     * register, wait for the email, follow the link, log in.
+     */
+    void journey(long intendedStartNanos) throws InterruptedException {
+        String email = nextEmail();
+        if (client.register(email, PASSWORD, intendedStartNanos) != 201) {
+            return;
+        }
+        long registeredAt = System.nanoTime();
+        String token = mailbox.awaitVerificationToken(email, 0, options.mailTimeout());
+        if (token == null) {
+            client.stats().recordFailure(Endpoint.MAIL_DELIVERY, System.nanoTime() - registeredAt);
+            return;
+        }
+        client.stats().record(Endpoint.MAIL_DELIVERY, 200, System.nanoTime() - registeredAt);
+        if (client.verify(token, System.nanoTime()) == 200) {
+            client.login(email, PASSWORD, System.nanoTime());
+        }
+    }
+
+    void loginStorm(long intendedStartNanos) throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double roll = random.nextDouble();
+        if (roll < options.unknownEmailRatio()) {
+            client.login("unknown-" + random.nextLong(Long.MAX_VALUE) + "@loadtest.invalid", PASSWORD, intendedStartNanos);
+        } else if (roll < options.unknownEmailRatio() + options.wrongPasswordRatio()) {
+            client.login(pick(verifiedAccounts), WRONG_PASSWORD, intendedStartNanos);
+        } else {
+            client.login(pick(verifiedAccounts), PASSWORD, intendedStartNanos);
+        }
+    }
+
+    /**
+     * A failed login from a fresh random address, or with {@code -legitimate-ratio}
+     * a correct login to a seeded account from that account's own address. No
+     * legitimate login may be turned away with a 429.
+     */
+    void stuffingWave(long intendedStartNanos) throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() < options.legitimateRatio()) {
+            int account = random.nextInt(verifiedAccounts.size());
+            String ownAddress = "10." + (account >>> 16 & 0xff) + "." + (account >>> 8 & 0xff) + "." + (account & 0xff);
+            client.login(Endpoint.LOGIN, verifiedAccounts.get(account), PASSWORD, ownAddress, intendedStartNanos);
+            return;
+        }
+        String attacker = (1 + random.nextInt(223)) + "." + random.nextInt(256) + "."
+                + random.nextInt(256) + "." + random.nextInt(256);
+        String email = random.nextDouble() < options.unknownEmailRatio()
+                ? "unknown-" + random.nextLong(Long.MAX_VALUE) + "@loadtest.invalid"
+                : pick(verifiedAccounts);
+        client.login(Endpoint.STUFFING_LOGIN, email, WRONG_PASSWORD, attacker, intendedStartNanos);
+    }
+
+    void resendAbuse(long intendedStartNanos) throws InterruptedException {
+        client.resend(pick(unverifiedAccounts), intendedStartNanos);
+    }
+
+    private Iteration mixed(Map<Scenario, Integer> mix) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        List<Map.Entry<Scenario, Integer>> weights = List.copyOf(mix.entrySet());
+        List<Iteration> iterations = weights.stream().map(entry -> forScenario(entry.getKey())).toList();
+        return intendedStartNanos -> {
+            int roll = ThreadLocalRandom.current().nextInt(total);
+            for (int i = 0; i < weights.size(); i++) {
+                roll -= weights.get(i).getValue();
+                if (roll < 0) {
+                    iterations.get(i).run(intendedStartNanos);
+                    return;
+                }
+            }
+        };
+    }
+
+    /**
+     * Follows each of {@code rounds} fresh verification links from
+     * {@code concurrency} threads released at once. The verification is a single
+     * conditional statement, so exactly one follower per link may succeed and
+     * the rest must get a 4xx, never a 5xx.
+     *
+     * @return the number of links that did not end with exactly one success
+     */
+    int verifyRace(int rounds, int concurrency) throws InterruptedException {
+        int violations = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int round = 0; round < rounds; round++) {
+                String email = nextEmail();
+                if (client.register(email, PASSWORD, System.nanoTime()) != 201) {
+                    throw new IllegalStateException("Registration failed during verify-race");
+                }
+                String token = mailbox.awaitVerificationToken(email, 0, options.mailTimeout());
+                if (token == null) {
+                    throw new IllegalStateException("No verification email for " + email);
+                }
+
+                CountDownLatch start = new CountDownLatch(1);
+                AtomicInteger successes = new AtomicInteger();
+                AtomicInteger serverErrors = new AtomicInteger();
+                List<Future<?>> followers = new ArrayList<>(concurrency);
+                for (int i = 0; i < concurrency; i++) {
+                    followers.add(executor.submit(() -> {
+                        start.await();
+                        int status = client.verify(token, System.nanoTime());
+                        if (status == 200) {
+                            successes.incrementAndGet();
+                        } else if (status >= 500 || status < 0) {
+                            serverErrors.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> follower : followers) {
+                    try {
+                        follower.get();
+                    } catch (ExecutionException e) {
+                        serverErrors.incrementAndGet();
+                    }
+                }
+
+                if (successes.get() != 1 || serverErrors.get() > 0) {
+                    violations++;
+                    log.error("Link for {} followed {} times concurrently: {} succeeded, {} server errors",
+                            email, concurrency, successes.get(), serverErrors.get());
+                } else if (client.login(email, PASSWORD, System.nanoTime()) != 200) {
+                    violations++;
+                    log.error("{} was verified but cannot log in", email);
+                }
+            }
+        }
+        return violations;
+    }
+
+    private String nextEmail() {
+        return "lt" + runId + "-" + sequence.incrementAndGet() + "@loadtest.example.com";
+    }
+
+    private static String pick(List<String> accounts) {
+        return accounts.get(ThreadLocalRandom.current().nextInt(accounts.size()));
+    }
+}
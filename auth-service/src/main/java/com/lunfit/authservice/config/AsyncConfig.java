@@ -1,24 +1,63 @@
 package com.lunfit.authservice.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
 
+    /**
+     * Pool size, active threads and queue depth are published by Spring Boot as
+     * executor.*{name=emailTask}; rejections are counted here since the executor
+     * itself does not track them.
+     */
     @Bean(name = "emailTaskExecutor")
-    public Executor emailTaskExecutor() {
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public Executor emailTaskExecutor(MeterRegistry meterRegistry) {
+        Counter rejections = Counter.builder("auth.executor.rejected")
+                .description("Tasks refused because the executor and its queue were full")
+                .tag("name", "emailTask")
+                .register(meterRegistry);
+        RejectedExecutionHandler abort = new ThreadPoolExecutor.AbortPolicy();
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2);
         executor.setMaxPoolSize(5);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("email-");
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejections.increment();
+            abort.rejectedExecution(task, pool);
+        });
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Virtual-thread variant used when spring.threads.virtual.enabled is set.
+     * Each email gets its own virtual thread; the concurrency limit keeps the
+     * number of simultaneous SMTP conversations bounded.
+     */
+    @Bean(name = "emailTaskExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Executor virtualEmailTaskExecutor(
+            @Value("${app.virtual-threads.email-concurrency-limit:20}") int concurrencyLimit) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("email-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        return executor;
+    }
 }
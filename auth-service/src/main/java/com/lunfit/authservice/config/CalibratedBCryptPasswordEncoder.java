@@ -0,0 +1,49 @@
+package com.lunfit.authservice.config;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * BCrypt encoder whose {@link #upgradeEncoding(String)} reports hashes whose cost
+ * is below the security floor or more than {@code tolerance} steps away from this
+ * instance's cost, so stored hashes converge on the current cost as users log in.
+ *
+ * Calibrated instances can settle one step apart on slightly different hardware;
+ * the tolerance keeps them from rehashing each other's hashes back and forth.
+ */
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private final int strength;
+    private final int floor;
+    private final int tolerance;
+
+    public CalibratedBCryptPasswordEncoder(int strength, int floor, int tolerance) {
+        super(strength);
+        this.strength = strength;
+        this.floor = floor;
+        this.tolerance = tolerance;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        Integer encodedStrength = parseStrength(encodedPassword);
+        return encodedStrength != null
+                && (encodedStrength < floor || Math.abs(encodedStrength - strength) > tolerance);
+    }
+
+    // Hashes look like $2a$12$<22 char salt><31 char hash>
+    private static Integer parseStrength(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7
+                || encodedPassword.charAt(0) != '$' || encodedPassword.charAt(3) != '$') {
+            return null;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
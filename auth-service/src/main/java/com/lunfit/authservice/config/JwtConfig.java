@@ -4,11 +4,29 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Data
 @Configuration
 @ConfigurationProperties(prefix = "jwt")
 public class JwtConfig {
-    private String secret;
+    private String secret;            // legacy HS* secret, verification only
+    private boolean acceptLegacyHmac = false;
     private Long accessTokenExpiry;  // in milliseconds
     private Long refreshTokenExpiry; // in milliseconds
+    private String activeKeyId;
+    private List<SigningKey> keys = new ArrayList<>();
+    private long jwksCacheSeconds = 300;
+
+    /**
+     * EC P-256 key pair. Keys without a private key are verification-only and
+     * stay published in the JWKS until tokens signed with them have expired.
+     */
+    @Data
+    public static class SigningKey {
+        private String kid;
+        private String privateKey;  // PKCS#8, PEM or bare Base64
+        private String publicKey;   // X.509 SubjectPublicKeyInfo, PEM or bare Base64
+    }
 }
@@ -1,15 +1,80 @@
 package com.lunfit.authservice.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+@Slf4j
 @Configuration
 public class PasswordEncoderConfig {
 
+    /**
+     * Lowest cost we accept regardless of configuration or hardware.
+     */
+    private static final int ABSOLUTE_MIN_STRENGTH = 10;
+
+    private static final int CALIBRATION_SAMPLES = 3;
+
+    private static final String CALIBRATION_PASSWORD = "Calibration-Passw0rd!";
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(
+            @Value("${app.password-hashing.bcrypt.strength:0}") int fixedStrength,
+            @Value("${app.password-hashing.bcrypt.min-strength:10}") int minStrength,
+            @Value("${app.password-hashing.bcrypt.max-strength:14}") int maxStrength,
+            @Value("${app.password-hashing.bcrypt.target-millis:250}") long targetMillis,
+            @Value("${app.password-hashing.bcrypt.rehash-tolerance:1}") int rehashTolerance) {
+        int floor = Math.max(minStrength, ABSOLUTE_MIN_STRENGTH);
+
+        if (fixedStrength > 0) {
+            int strength = Math.max(fixedStrength, floor);
+            log.info("Using fixed BCrypt cost {}", strength);
+            // Every instance uses the same cost, so any other cost is rehashed
+            return new CalibratedBCryptPasswordEncoder(strength, floor, 0);
+        }
+
+        int strength = calibrate(floor, Math.max(maxStrength, floor), targetMillis);
+        return new CalibratedBCryptPasswordEncoder(strength, floor, Math.max(rehashTolerance, 0));
+    }
+
+    /**
+     * Picks the highest cost whose hashing time fits the latency budget on this
+     * machine. Each cost step doubles the work, so one measurement at the floor
+     * is extrapolated and the chosen cost is then confirmed with a real sample.
+     */
+    private int calibrate(int floor, int ceiling, long targetMillis) {
+        long floorNanos = measure(floor);
+        long targetNanos = targetMillis * 1_000_000L;
+
+        int strength = floor;
+        while (strength < ceiling && floorNanos << (strength + 1 - floor) <= targetNanos) {
+            strength++;
+        }
+
+        long chosenNanos = strength == floor ? floorNanos : measure(strength);
+        while (strength > floor && chosenNanos > targetNanos) {
+            strength--;
+            chosenNanos = measure(strength);
+        }
+
+        log.info("Calibrated BCrypt cost {} ({} ms per hash, budget {} ms, floor {})",
+                strength, chosenNanos / 1_000_000, targetMillis, floor);
+        return strength;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        encoder.encode(CALIBRATION_PASSWORD); // warm-up
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
     }
 }
@@ -1,28 +1,95 @@
 package com.lunfit.authservice.config;
 
+import com.lunfit.authservice.security.JwtAuthenticationFilter;
+import com.lunfit.authservice.security.LoginThreatsEndpoint;
+import com.lunfit.authservice.security.VerifiedTokenCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.util.StringUtils;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
+    /**
+     * Actuator endpoints are for operators, not end users: access tokens are not
+     * accepted here, only HTTP Basic with the operator accounts from
+     * {@link #operatorUsers}.
+     */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    @Order(1)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher(EndpointRequest.toAnyEndpoint())
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(session ->
+                        session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                        .requestMatchers(EndpointRequest.to("prometheus")).hasAnyRole("METRICS", "ADMIN")
+                        .requestMatchers(EndpointRequest.to(LoginThreatsEndpoint.class)).hasRole("ADMIN")
+                        .anyRequest().hasRole("ADMIN")
+                )
+                .httpBasic(Customizer.withDefaults());
+
+        return http.build();
+    }
+
+    @Bean
+    public SecurityFilterChain filterChain(HttpSecurity http, VerifiedTokenCache verifiedTokenCache) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session ->
                         session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/v1/auth/**").permitAll()
-                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/.well-known/jwks.json").permitAll()
                         .anyRequest().authenticated()
-                );
+                )
+                .exceptionHandling(exceptions ->
+                        exceptions.authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterBefore(new JwtAuthenticationFilter(verifiedTokenCache),
+                        UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
+
+    /**
+     * Operator accounts for the actuator: an administrator and a Prometheus
+     * scraper that can only read metrics. Passwords are stored as BCrypt hashes;
+     * without configured accounts only the health endpoint is reachable.
+     */
+    @Bean
+    public UserDetailsService operatorUsers(
+            @Value("${app.actuator.admin.username:}") String adminUsername,
+            @Value("${app.actuator.admin.password-hash:}") String adminPasswordHash,
+            @Value("${app.actuator.scrape.username:}") String scrapeUsername,
+            @Value("${app.actuator.scrape.password-hash:}") String scrapePasswordHash) {
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager();
+        addOperator(users, adminUsername, adminPasswordHash, "ADMIN");
+        addOperator(users, scrapeUsername, scrapePasswordHash, "METRICS");
+        return users;
+    }
+
+    private static void addOperator(InMemoryUserDetailsManager users, String username, String passwordHash,
+                                    String role) {
+        if (StringUtils.hasText(username) && StringUtils.hasText(passwordHash)) {
+            users.createUser(User.withUsername(username).password(passwordHash).roles(role).build());
+        }
+    }
 }
@@ -2,12 +2,14 @@ package com.lunfit.authservice.controller;
 
 import com.lunfit.authservice.dto.LoginRequest;
 import com.lunfit.authservice.dto.LoginResponse;
+import com.lunfit.authservice.dto.RefreshTokenRequest;
 import com.lunfit.authservice.dto.RegisterRequest;
 import com.lunfit.authservice.dto.RegisterResponse;
 import com.lunfit.authservice.dto.ResendVerificationRequest;
 import com.lunfit.authservice.dto.ResendVerificationResponse;
 import com.lunfit.authservice.dto.VerifyEmailResponse;
 import com.lunfit.authservice.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
@@ -27,19 +29,37 @@ public class AuthController {
     private final AuthService authService;
 
     @PostMapping("/register")
-    public ResponseEntity<RegisterResponse> register(@Valid @RequestBody RegisterRequest request) {
+    public ResponseEntity<RegisterResponse> register(
+            @Valid @RequestBody RegisterRequest request,
+            HttpServletRequest httpRequest) {
         log.info("Registration request received for email: {}", request.getEmail());
-        RegisterResponse response = authService.register(request);
+        RegisterResponse response = authService.register(request, httpRequest.getRemoteAddr());
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
     @PostMapping("/login")
-    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<LoginResponse> login(
+            @Valid @RequestBody LoginRequest request,
+            HttpServletRequest httpRequest) {
         log.info("Login request received for email: {}", request.getEmail());
-        LoginResponse response = authService.login(request);
+        LoginResponse response = authService.login(request, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        log.info("Token refresh request received");
+        LoginResponse response = authService.refresh(request);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        log.info("Logout request received");
+        authService.logout(request);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/verify")
     public ResponseEntity<VerifyEmailResponse> verifyEmail(
             @RequestParam @NotBlank(message = "Token is required") String token) {
@@ -50,9 +70,10 @@ public class AuthController {
 
     @PostMapping("/verify/resend")
     public ResponseEntity<ResendVerificationResponse> resendVerificationEmail(
-            @Valid @RequestBody ResendVerificationRequest request) {
+            @Valid @RequestBody ResendVerificationRequest request,
+            HttpServletRequest httpRequest) {
         log.info("Resend verification email request received for: {}", request.getEmail());
-        ResendVerificationResponse response = authService.resendVerificationEmail(request);
+        ResendVerificationResponse response = authService.resendVerificationEmail(request, httpRequest.getRemoteAddr());
         return ResponseEntity.ok(response);
     }
 }
@@ -0,0 +1,45 @@
+package com.lunfit.authservice.controller;
+
+import com.lunfit.authservice.security.JwtKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the token verification keys so other services can validate access
+ * tokens locally instead of calling this service.
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtKeyRing keyRing;
+
+    @Value("${jwt.jwks-cache-seconds:300}")
+    private long cacheSeconds;
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> jwks(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        CacheControl cacheControl = CacheControl.maxAge(cacheSeconds, TimeUnit.SECONDS).cachePublic();
+
+        if (keyRing.jwksEtag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .eTag(keyRing.jwksEtag())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .eTag(keyRing.jwksEtag())
+                .body(keyRing.jwks());
+    }
+}
@@ -0,0 +1,51 @@
+package com.lunfit.authservice.controller;
+
+import com.lunfit.authservice.dto.SessionResponse;
+import com.lunfit.authservice.security.AuthenticatedUser;
+import com.lunfit.authservice.service.SessionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/sessions")
+@RequiredArgsConstructor
+public class SessionController {
+
+    private final SessionService sessionService;
+
+    @GetMapping
+    public ResponseEntity<List<SessionResponse>> listSessions(@AuthenticationPrincipal AuthenticatedUser user) {
+        List<SessionResponse> sessions = sessionService.listSessions(user.userId()).stream()
+                .map(session -> SessionResponse.builder()
+                        .id(session.getId())
+                        .deviceId(session.getDeviceId())
+                        .deviceInfo(session.getDeviceInfo())
+                        .createdAt(session.getCreatedAt())
+                        .lastUsedAt(session.getLastUsedAt())
+                        .expiresAt(session.getExpiresAt())
+                        .build())
+                .toList();
+        return ResponseEntity.ok(sessions);
+    }
+
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<Void> revokeSession(
+            @AuthenticationPrincipal AuthenticatedUser user,
+            @PathVariable Long sessionId) {
+        log.info("Session revoke request received for user: {}", user.userId());
+        if (!sessionService.revoke(user.userId(), sessionId)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
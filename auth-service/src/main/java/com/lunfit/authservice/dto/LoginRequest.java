@@ -2,6 +2,7 @@ package com.lunfit.authservice.dto;
 
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,5 +21,9 @@ public class LoginRequest {
     @NotBlank(message = "Password is required")
     private String password;
 
+    @Size(max = 100, message = "Device ID must not exceed 100 characters")
+    private String deviceId;
+
+    @Size(max = 500, message = "Device info must not exceed 500 characters")
     private String deviceInfo;
 }
@@ -17,22 +17,17 @@ import java.time.LocalDateTime;
 public class AuthCredential {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "auth_credentials_id_seq")
+    @SequenceGenerator(name = "auth_credentials_id_seq", sequenceName = "auth_credentials_id_seq", allocationSize = 50)
     private Long id;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false, unique = true)
     private User user;
 
     @Column(name = "password_hash", nullable = false)
     private String passwordHash;
 
-    @Column(name = "refresh_token")
-    private String refreshToken;
-
-    @Column(name = "refresh_token_expiry")
-    private LocalDateTime refreshTokenExpiry;
-
     @Column(name = "device_info", length = 500)
     private String deviceInfo;
 
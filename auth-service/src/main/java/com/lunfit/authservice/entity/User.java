@@ -19,7 +19,8 @@ import java.util.List;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 254)
@@ -43,12 +44,9 @@ public class User {
     @Column(name = "last_login_at")
     private LocalDateTime lastLoginAt;
 
-    @Column(name = "resend_count", nullable = false)
+    @Column(name = "verification_nonce", nullable = false)
     @Builder.Default
-    private Integer resendCount = 0;
-
-    @Column(name = "last_resend_at")
-    private LocalDateTime lastResendAt;
+    private Integer verificationNonce = 0;
 
     @OneToOne(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private AuthCredential authCredential;
@@ -1,6 +1,6 @@
 package com.lunfit.authservice.exception;
 
-public class AccountAlreadyVerifiedException extends RuntimeException {
+public class AccountAlreadyVerifiedException extends AuthException {
     public AccountAlreadyVerifiedException(String message) {
         super(message);
     }
@@ -0,0 +1,15 @@
+package com.lunfit.authservice.exception;
+
+/**
+ * Base class for expected, client-caused failures that are mapped to a 4xx/503
+ * response by {@link GlobalExceptionHandler}.
+ *
+ * These are thrown in bulk during credential stuffing and token guessing, and
+ * nobody reads their stack traces, so none is captured and suppression is off.
+ */
+public abstract class AuthException extends RuntimeException {
+
+    protected AuthException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -1,6 +1,6 @@
 package com.lunfit.authservice.exception;
 
-public class EmailAlreadyExistsException extends RuntimeException {
+public class EmailAlreadyExistsException extends AuthException {
     public EmailAlreadyExistsException(String message) {
         super(message);
     }
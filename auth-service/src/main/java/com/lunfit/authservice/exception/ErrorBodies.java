@@ -0,0 +1,108 @@
+package com.lunfit.authservice.exception;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes the JSON error body for {@link AuthException}s without going through
+ * Jackson. The output matches the serialized {@code ErrorResponse}:
+ *
+ * <pre>{"timestamp":"...","status":401,"error":"Unauthorized","message":"...","path":"..."}</pre>
+ *
+ * Everything but the timestamp and path is serialized once per status and
+ * message (messages are constants in code). The timestamp has second precision
+ * and is formatted once per second; escaped paths are cached, since only the
+ * mapped endpoints get here. A response then costs one byte array.
+ */
+@Component
+public class ErrorBodies {
+
+    private static final int MAX_CACHED_PATHS = 256;
+
+    private static final byte[] TIMESTAMP_PREFIX = ascii("{\"timestamp\":\"");
+    private static final byte[] SUFFIX = ascii("\"}");
+
+    private final Map<HttpStatus, Map<String, byte[]>> middles = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> paths = new ConcurrentHashMap<>();
+    private volatile Timestamp timestamp = Timestamp.at(System.currentTimeMillis() / 1000);
+
+    public ResponseEntity<byte[]> response(HttpStatus status, String message, String path) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body(status, message, path));
+    }
+
+    public byte[] body(HttpStatus status, String message, String path) {
+        byte[] time = currentTimestamp();
+        byte[] middle = middles.computeIfAbsent(status, s -> new ConcurrentHashMap<>())
+                .computeIfAbsent(message, m -> middle(status, m));
+        byte[] escapedPath = escapedPath(path);
+
+        byte[] body = new byte[TIMESTAMP_PREFIX.length + time.length + middle.length
+                + escapedPath.length + SUFFIX.length];
+        int offset = append(body, 0, TIMESTAMP_PREFIX);
+        offset = append(body, offset, time);
+        offset = append(body, offset, middle);
+        offset = append(body, offset, escapedPath);
+        append(body, offset, SUFFIX);
+        return body;
+    }
+
+    private byte[] currentTimestamp() {
+        long second = System.currentTimeMillis() / 1000;
+        Timestamp current = timestamp;
+        if (current.epochSecond() != second) {
+            current = Timestamp.at(second);
+            timestamp = current;
+        }
+        return current.formatted();
+    }
+
+    private byte[] escapedPath(String path) {
+        byte[] cached = paths.get(path);
+        if (cached != null) {
+            return cached;
+        }
+        byte[] escaped = JsonStringEncoder.getInstance().quoteAsUTF8(path);
+        if (paths.size() < MAX_CACHED_PATHS) {
+            paths.putIfAbsent(path, escaped);
+        }
+        return escaped;
+    }
+
+    private static byte[] middle(HttpStatus status, String message) {
+        return ("\",\"status\":" + status.value()
+                + ",\"error\":\"" + status.getReasonPhrase()
+                + "\",\"message\":\"" + new String(JsonStringEncoder.getInstance().quoteAsString(message))
+                + "\",\"path\":\"").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int append(byte[] target, int offset, byte[] part) {
+        System.arraycopy(part, 0, target, offset, part.length);
+        return offset + part.length;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private record Timestamp(long epochSecond, byte[] formatted) {
+
+        static Timestamp at(long epochSecond) {
+            // Same format Jackson uses for LocalDateTime, truncated to the second
+            String formatted = DateTimeFormatter.ISO_LOCAL_DATE_TIME
+                    .format(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+            return new Timestamp(epochSecond, ascii(formatted));
+        }
+    }
+}
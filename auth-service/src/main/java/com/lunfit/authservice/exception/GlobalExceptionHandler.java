@@ -2,11 +2,18 @@ package com.lunfit.authservice.exception;
 
 import com.lunfit.authservice.dto.response.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
@@ -14,120 +21,99 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
+/**
+ * Maps exceptions to error responses. {@link AuthException}s are the bulk of
+ * traffic under attack, so their bodies come pre-serialized from
+ * {@link ErrorBodies} and their warnings go through {@link SampledWarnLogger}.
+ */
 @Slf4j
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final ErrorBodies errorBodies;
+    private final SampledWarnLogger warnLogger;
+
     @ExceptionHandler(EmailAlreadyExistsException.class)
-    public ResponseEntity<ErrorResponse> handleEmailAlreadyExists(
+    public ResponseEntity<byte[]> handleEmailAlreadyExists(
             EmailAlreadyExistsException ex,
             HttpServletRequest request) {
-        log.warn("Email already exists: {}", ex.getMessage());
-        ErrorResponse error = ErrorResponse.builder()
-                .timestamp(LocalDateTime.now())
-                .status(HttpStatus.CONFLICT.value())
-                .error("Conflict")
-                .message(ex.getMessage())
-                .path(request.getRequestURI())
-                .build();
-        return new ResponseEntity<>(error, HttpStatus.CONFLICT);
+        warnLogger.warn("Registration for an existing email", request.getRemoteAddr());
+        return errorBodies.response(HttpStatus.CONFLICT, ex.getMessage(), request.getRequestURI());
     }
 
     @ExceptionHandler(InvalidCredentialsException.class)
-    public ResponseEntity<ErrorResponse> handleInvalidCredentials(
+    public ResponseEntity<byte[]> handleInvalidCredentials(
             InvalidCredentialsException ex,
             HttpServletRequest request) {
-        log.warn("Invalid credentials attempt from: {}", request.getRemoteAddr());
-        ErrorResponse error = ErrorResponse.builder()
-                .timestamp(LocalDateTime.now())
-                .status(HttpStatus.UNAUTHORIZED.value())
-                .error("Unauthorized")
-                .message(ex.getMessage())
-                .path(request.getRequestURI())
-                .build();
-        return new ResponseEntity<>(error, HttpStatus.UNAUTHORIZED);
+        warnLogger.warn("Invalid credentials attempt", request.getRemoteAddr());
+        return errorBodies.response(HttpStatus.UNAUTHORIZED, ex.getMessage(), request.getRequestURI());
+    }
+
+    @ExceptionHandler(InvalidTokenException.class)
+    public ResponseEntity<byte[]> handleInvalidToken(
+            InvalidTokenException ex,
+            HttpServletRequest request) {
+        warnLogger.warn("Invalid token", ex.getMessage());
+        return errorBodies.response(HttpStatus.BAD_REQUEST, ex.getMessage(), request.getRequestURI());
     }
 
     @ExceptionHandler(TokenExpiredException.class)
-    public ResponseEntity<ErrorResponse> handleTokenExpired(
+    public ResponseEntity<byte[]> handleTokenExpired(
             TokenExpiredException ex,
             HttpServletRequest request) {
-        log.warn("Token expired: {}", ex.getMessage());
-        ErrorResponse error = ErrorResponse.builder()
-                .timestamp(LocalDateTime.now())
-                .status(HttpStatus.BAD_REQUEST.value())
-                .error("Bad Request")
-                .message(ex.getMessage())
-                .path(request.getRequestURI())
-                .build();
-        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        warnLogger.warn("Token expired", ex.getMessage());
+        return errorBodies.response(HttpStatus.BAD_REQUEST, ex.getMessage(), request.getRequestURI());
     }
 
     @ExceptionHandler(VerificationRequiredException.class)
-    public ResponseEntity<ErrorResponse> handleVerificationRequired(
+    public ResponseEntity<byte[]> handleVerificationRequired(
             VerificationRequiredException ex,
             HttpServletRequest request) {
-        log.warn("Verification required: {}", ex.getMessage());
-        ErrorResponse error = ErrorResponse.builder()
-                .timestamp(LocalDateTime.now())
-                .status(HttpStatus.BAD_REQUEST.value())
-                .error("Bad Request")
-                .message(ex.getMessage())
-                .path(request.getRequestURI())
-                .build();
-        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        warnLogger.warn("Verification required", ex.getMessage());
+        return errorBodies.response(HttpStatus.BAD_REQUEST, ex.getMessage(), request.getRequestURI());
     }
 
     @ExceptionHandler(AccountAlreadyVerifiedException.class)
-    public ResponseEntity<ErrorResponse> handleAccountAlreadyVerified(
+    public ResponseEntity<byte[]> handleAccountAlreadyVerified(
             AccountAlreadyVerifiedException ex,
             HttpServletRequest request) {
-        log.warn("Account already verified: {}", ex.getMessage());
-        ErrorResponse error = ErrorResponse.builder()
-                .timestamp(LocalDateTime.now())
-                .status(HttpStatus.BAD_REQUEST.value())
-                .error("Bad Request")
-                .message(ex.getMessage())
-                .path(request.getRequestURI())
-                .build();
-        return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
+        warnLogger.warn("Account already verified", ex.getMessage());
+        return errorBodies.response(HttpStatus.BAD_REQUEST, ex.getMessage(), request.getRequestURI());
     }
 
     @ExceptionHandler(RateLimitExceededException.class)
-    public ResponseEntity<ErrorResponse> handleRateLimitExceeded(
+    public ResponseEntity<byte[]> handleRateLimitExceeded(
             RateLimitExceededException ex,
             HttpServletRequest request) {
-        log.warn("Rate limit exceeded: {}", ex.getMessage());
-        ErrorResponse error = ErrorResponse.builder()
-                .timestamp(LocalDateTime.now())
-                .status(HttpStatus.TOO_MANY_REQUESTS.value())
-                .error("Too Many Requests")
-                .message(ex.getMessage())
-                .path(request.getRequestURI())
-                .build();
-        return new ResponseEntity<>(error, HttpStatus.TOO_MANY_REQUESTS);
+        warnLogger.warn("Rate limit exceeded", request.getRemoteAddr());
+        return errorBodies.response(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), request.getRequestURI());
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<byte[]> handleServiceOverloaded(
+            ServiceOverloadedException ex,
+            HttpServletRequest request) {
+        warnLogger.warn("Request shed under load", request.getRequestURI());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorBodies.body(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), request.getRequestURI()));
     }
 
     @ExceptionHandler(UserNotFoundException.class)
-    public ResponseEntity<ErrorResponse> handleUserNotFound(
+    public ResponseEntity<byte[]> handleUserNotFound(
             UserNotFoundException ex,
             HttpServletRequest request) {
-        log.warn("User not found: {}", ex.getMessage());
-        ErrorResponse error = ErrorResponse.builder()
-                .timestamp(LocalDateTime.now())
-                .status(HttpStatus.NOT_FOUND.value())
-                .error("Not Found")
-                .message(ex.getMessage())
-                .path(request.getRequestURI())
-                .build();
-        return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
+        warnLogger.warn("User not found", ex.getMessage());
+        return errorBodies.response(HttpStatus.NOT_FOUND, ex.getMessage(), request.getRequestURI());
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidationErrors(
             MethodArgumentNotValidException ex,
             HttpServletRequest request) {
-        log.warn("Validation error: {}", ex.getMessage());
+        warnLogger.warn("Validation error", request.getRequestURI());
         List<ErrorResponse.ValidationError> validationErrors = ex.getBindingResult()
                 .getAllErrors()
                 .stream()
@@ -148,10 +134,55 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    // Parameter names and constraint messages come from code, so ErrorBodies can cache them
+    @ExceptionHandler(MissingServletRequestParameterException.class)
+    public ResponseEntity<byte[]> handleMissingParameter(
+            MissingServletRequestParameterException ex,
+            HttpServletRequest request) {
+        warnLogger.warn("Missing request parameter", request.getRequestURI());
+        return errorBodies.response(HttpStatus.BAD_REQUEST,
+                "Missing request parameter: " + ex.getParameterName(), request.getRequestURI());
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<byte[]> handleConstraintViolation(
+            ConstraintViolationException ex,
+            HttpServletRequest request) {
+        warnLogger.warn("Validation error", request.getRequestURI());
+        String message = ex.getConstraintViolations().stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+        return errorBodies.response(HttpStatus.BAD_REQUEST, message, request.getRequestURI());
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<byte[]> handleUnreadableBody(
+            HttpMessageNotReadableException ex,
+            HttpServletRequest request) {
+        warnLogger.warn("Malformed request body", request.getRequestURI());
+        return errorBodies.response(HttpStatus.BAD_REQUEST, "Malformed request body", request.getRequestURI());
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(
             Exception ex,
             HttpServletRequest request) {
+        // Spring MVC's own exceptions (unknown path, wrong method, ...) carry their 4xx status
+        if (ex instanceof org.springframework.web.ErrorResponse mvcError
+                && HttpStatus.resolve(mvcError.getStatusCode().value()) instanceof HttpStatus status
+                && status.is4xxClientError()) {
+            warnLogger.warn("Rejected request", request.getRequestURI());
+            ErrorResponse error = ErrorResponse.builder()
+                    .timestamp(LocalDateTime.now())
+                    .status(status.value())
+                    .error(status.getReasonPhrase())
+                    .message(status.getReasonPhrase())
+                    .path(request.getRequestURI())
+                    .build();
+            return new ResponseEntity<>(error, mvcError.getHeaders(), status);
+        }
+
         log.error("Unexpected error", ex);
         ErrorResponse error = ErrorResponse.builder()
                 .timestamp(LocalDateTime.now())
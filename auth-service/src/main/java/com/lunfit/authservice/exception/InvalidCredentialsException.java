@@ -1,6 +1,6 @@
 package com.lunfit.authservice.exception;
 
-public class InvalidCredentialsException extends RuntimeException {
+public class InvalidCredentialsException extends AuthException {
     public InvalidCredentialsException(String message) {
         super(message);
     }
@@ -0,0 +1,7 @@
+package com.lunfit.authservice.exception;
+
+public class InvalidTokenException extends AuthException {
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
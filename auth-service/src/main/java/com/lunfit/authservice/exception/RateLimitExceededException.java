@@ -1,6 +1,6 @@
 package com.lunfit.authservice.exception;
 
-public class RateLimitExceededException extends RuntimeException {
+public class RateLimitExceededException extends AuthException {
     public RateLimitExceededException(String message) {
         super(message);
     }
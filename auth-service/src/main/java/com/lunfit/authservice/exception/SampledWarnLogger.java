@@ -0,0 +1,60 @@
+package com.lunfit.authservice.exception;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * WARN logging for expected failures that can arrive by the thousand per second.
+ *
+ * Per kind of failure, the first occurrence in each interval is logged with its
+ * detail; the rest are only counted and reported as one summary line when the
+ * interval ends. A flood of failed logins thus costs a counter increment per
+ * request and two log lines per interval.
+ */
+@Slf4j
+@Component
+public class SampledWarnLogger {
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final long intervalSeconds;
+
+    public SampledWarnLogger(@Value("${app.failure-log.interval-ms:10000}") long intervalMs) {
+        this.intervalSeconds = Math.max(1, intervalMs / 1000);
+    }
+
+    /**
+     * @param kind   a constant describing the failure, e.g. "Invalid credentials"
+     * @param detail logged with the sampled occurrence only
+     */
+    public void warn(String kind, Object detail) {
+        Window window = windows.computeIfAbsent(kind, k -> new Window());
+        if (!window.sampled.get() && window.sampled.compareAndSet(false, true)) {
+            log.warn("{}: {}", kind, detail);
+        } else {
+            window.suppressed.increment();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.failure-log.interval-ms:10000}")
+    public void flush() {
+        windows.forEach((kind, window) -> {
+            long suppressed = window.suppressed.sumThenReset();
+            window.sampled.set(false);
+            if (suppressed > 0) {
+                log.warn("{}: {} more in the last {}s", kind, suppressed, intervalSeconds);
+            }
+        });
+    }
+
+    private static final class Window {
+        private final AtomicBoolean sampled = new AtomicBoolean();
+        private final LongAdder suppressed = new LongAdder();
+    }
+}
@@ -0,0 +1,7 @@
+package com.lunfit.authservice.exception;
+
+public class ServiceOverloadedException extends AuthException {
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -1,6 +1,6 @@
 package com.lunfit.authservice.exception;
 
-public class TokenExpiredException extends RuntimeException {
+public class TokenExpiredException extends AuthException {
     public TokenExpiredException(String message) {
         super(message);
     }
@@ -1,6 +1,6 @@
 package com.lunfit.authservice.exception;
 
-public class UserNotFoundException extends RuntimeException {
+public class UserNotFoundException extends AuthException {
     public UserNotFoundException(String message) {
         super(message);
     }
@@ -1,6 +1,6 @@
 package com.lunfit.authservice.exception;
 
-public class VerificationRequiredException extends RuntimeException {
+public class VerificationRequiredException extends AuthException {
     public VerificationRequiredException(String message) {
         super(message);
     }
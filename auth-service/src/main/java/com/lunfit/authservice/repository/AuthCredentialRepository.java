@@ -1,15 +1,31 @@
 package com.lunfit.authservice.repository;
 
 import com.lunfit.authservice.entity.AuthCredential;
+import com.lunfit.authservice.repository.projection.LoginCandidate;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface AuthCredentialRepository extends JpaRepository<AuthCredential, Long> {
 
-    Optional<AuthCredential> findByRefreshToken(String refreshToken);
-
     Optional<AuthCredential> findByUserId(Long userId);
+
+    @Query("select new com.lunfit.authservice.repository.projection.LoginCandidate("
+            + "u.id, u.email, u.status, u.emailVerified, c.passwordHash, c.deviceInfo) "
+            + "from AuthCredential c join c.user u where u.email = :email")
+    Optional<LoginCandidate> findLoginCandidateByEmail(@Param("email") String email);
+
+    @Transactional
+    @Modifying
+    @Query("update AuthCredential c set c.passwordHash = :passwordHash, c.updatedAt = :now where c.user.id = :userId")
+    int updatePasswordHash(@Param("userId") Long userId,
+                           @Param("passwordHash") String passwordHash,
+                           @Param("now") LocalDateTime now);
 }
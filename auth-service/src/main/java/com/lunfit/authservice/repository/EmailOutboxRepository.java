@@ -0,0 +1,97 @@
+package com.lunfit.authservice.repository;
+
+import com.lunfit.authservice.entity.EmailOutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, Long> {
+
+    /**
+     * Claims up to {@code limit} due messages. Rows locked by another dispatcher are
+     * skipped, and claimed rows are leased by pushing next_attempt_at forward, so a
+     * crashed dispatcher's messages become due again once the lease runs out.
+     */
+    @Query(value = """
+            WITH claimed AS (
+                UPDATE email_outbox
+                   SET attempts = attempts + 1,
+                       next_attempt_at = :leaseUntil
+                 WHERE id IN (
+                       SELECT id FROM email_outbox
+                        WHERE status = 'PENDING' AND next_attempt_at <= :now
+                        ORDER BY next_attempt_at
+                        LIMIT :limit
+                        FOR UPDATE SKIP LOCKED)
+                RETURNING *)
+            SELECT * FROM claimed ORDER BY id
+            """, nativeQuery = true)
+    List<EmailOutboxMessage> claimDue(@Param("now") LocalDateTime now,
+                                      @Param("leaseUntil") LocalDateTime leaseUntil,
+                                      @Param("limit") int limit);
+
+    /**
+     * Marks every pending message of a type as SUPERSEDED when a newer pending one
+     * exists for the same user, e.g. older verification links after a resend.
+     * Rows another dispatcher currently holds locked are left alone.
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE email_outbox SET status = 'SUPERSEDED'
+             WHERE id IN (
+                   SELECT o.id FROM email_outbox o
+                    WHERE o.status = 'PENDING' AND o.email_type = :emailType
+                      AND EXISTS (SELECT 1 FROM email_outbox n
+                                   WHERE n.user_id = o.user_id AND n.email_type = o.email_type
+                                     AND n.status = 'PENDING' AND n.id > o.id)
+                      FOR UPDATE SKIP LOCKED)
+            """, nativeQuery = true)
+    int supersedeOlderPending(@Param("emailType") String emailType);
+
+    @Modifying
+    @Query(value = "UPDATE email_outbox SET status = 'SENT', sent_at = :sentAt, last_error = NULL WHERE id IN (:ids)",
+            nativeQuery = true)
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Query("update EmailOutboxMessage m set m.nextAttemptAt = :nextAttemptAt, m.lastError = :error "
+            + "where m.id = :id")
+    int scheduleRetry(@Param("id") Long id,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                      @Param("error") String error);
+
+    @Modifying
+    @Query(value = "UPDATE email_outbox SET status = 'FAILED', last_error = :error WHERE id = :id",
+            nativeQuery = true)
+    int markFailed(@Param("id") Long id, @Param("error") String error);
+
+    @Query("select min(m.createdAt) from EmailOutboxMessage m where m.status = :status")
+    Optional<LocalDateTime> findOldestCreatedAt(@Param("status") EmailOutboxMessage.Status status);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM email_outbox WHERE id IN (
+                SELECT id FROM email_outbox WHERE status = 'SENT' AND sent_at < :before
+                ORDER BY sent_at LIMIT :limit)
+            """, nativeQuery = true)
+    int deleteSentBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+
+    /**
+     * Deletes messages that were never delivered (FAILED or SUPERSEDED), by age.
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM email_outbox WHERE id IN (
+                SELECT id FROM email_outbox WHERE status IN ('FAILED', 'SUPERSEDED') AND created_at < :before
+                ORDER BY created_at LIMIT :limit)
+            """, nativeQuery = true)
+    int deleteUndeliveredBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
@@ -2,9 +2,14 @@ package com.lunfit.authservice.repository;
 
 import com.lunfit.authservice.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,7 +17,67 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String email);
 
-    boolean existsByEmail(String email);
+    /**
+     * Activates an unverified user if the nonce from a signed verification link
+     * is still current, and moves the nonce on so the link cannot be reused.
+     * Returns the user's email, or empty if nothing was updated.
+     */
+    @Query(value = """
+            WITH activated AS (
+                UPDATE users
+                   SET status = 'ACTIVE', email_verified = TRUE, verified_at = :now,
+                       verification_nonce = verification_nonce + 1
+                 WHERE id = :userId
+                   AND verification_nonce = :nonce
+                   AND email_verified = FALSE
+                RETURNING email)
+            SELECT email FROM activated
+            """, nativeQuery = true)
+    Optional<String> activateWithNonce(@Param("userId") Long userId,
+                                       @Param("nonce") int nonce,
+                                       @Param("now") LocalDateTime now);
 
-    int deleteByStatusAndCreatedAtBefore(User.UserStatus status, LocalDateTime cutoffDate);
+    /**
+     * Moves the verification nonce of a still unverified user on, so links signed
+     * with the previous nonce stop working. Only touches that column, so it cannot
+     * undo a verification that committed concurrently. Returns the new nonce, or
+     * empty if the user is already verified.
+     */
+    @Query(value = """
+            WITH bumped AS (
+                UPDATE users
+                   SET verification_nonce = verification_nonce + 1
+                 WHERE id = :userId
+                   AND email_verified = FALSE
+                RETURNING verification_nonce)
+            SELECT verification_nonce FROM bumped
+            """, nativeQuery = true)
+    Optional<Integer> bumpVerificationNonce(@Param("userId") Long userId);
+
+    /**
+     * Next page of unverified accounts created before the cutoff, keyset-paginated
+     * on id so each page starts past the rows already deleted.
+     */
+    @Query(value = """
+            SELECT id FROM users
+             WHERE status = 'PENDING' AND created_at < :cutoff AND id > :afterId
+             ORDER BY id
+             LIMIT :limit
+            """, nativeQuery = true)
+    List<Long> findUnverifiedIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff,
+                                              @Param("afterId") long afterId,
+                                              @Param("limit") int limit);
+
+    /**
+     * Deletes one chunk of unverified accounts in its own short transaction.
+     * Credentials, tokens, sessions and queued emails go with them through
+     * ON DELETE CASCADE. Accounts verified since they were selected are kept.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM users
+             WHERE id IN (:ids) AND status = 'PENDING' AND created_at < :cutoff
+            """, nativeQuery = true)
+    int deleteUnverifiedByIds(@Param("ids") List<Long> ids, @Param("cutoff") LocalDateTime cutoff);
 }
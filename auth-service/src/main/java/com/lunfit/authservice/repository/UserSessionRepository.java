@@ -0,0 +1,92 @@
+package com.lunfit.authservice.repository;
+
+import com.lunfit.authservice.entity.UserSession;
+import com.lunfit.authservice.repository.projection.SessionOwnerView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UserSessionRepository extends JpaRepository<UserSession, Long> {
+
+    /**
+     * Creates the session for a device, or replaces the token of the existing one.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO user_sessions (user_id, device_id, device_info, refresh_token,
+                                       created_at, last_used_at, expires_at)
+            VALUES (:userId, :deviceId, :deviceInfo, :refreshToken, :now, :now, :expiresAt)
+            ON CONFLICT (user_id, device_id) DO UPDATE
+               SET device_info = EXCLUDED.device_info,
+                   refresh_token = EXCLUDED.refresh_token,
+                   previous_refresh_token = NULL,
+                   last_used_at = EXCLUDED.last_used_at,
+                   expires_at = EXCLUDED.expires_at
+            """, nativeQuery = true)
+    int upsert(@Param("userId") Long userId,
+               @Param("deviceId") String deviceId,
+               @Param("deviceInfo") String deviceInfo,
+               @Param("refreshToken") String refreshToken,
+               @Param("expiresAt") LocalDateTime expiresAt,
+               @Param("now") LocalDateTime now);
+
+    @Query("select new com.lunfit.authservice.repository.projection.SessionOwnerView("
+            + "s.id, s.expiresAt, u.id, u.email, u.status) "
+            + "from UserSession s, User u where u.id = s.userId and s.refreshToken = :refreshToken")
+    Optional<SessionOwnerView> findOwnerByRefreshToken(@Param("refreshToken") String refreshToken);
+
+    Optional<UserSession> findByPreviousRefreshToken(String previousRefreshToken);
+
+    List<UserSession> findByUserIdOrderByLastUsedAtDesc(Long userId);
+
+    /**
+     * Swaps the current refresh token digest for a new one, but only if the
+     * presented digest is still current. Returns 0 when another request won.
+     */
+    @Modifying
+    @Query("update UserSession s set s.refreshToken = :newToken, s.previousRefreshToken = :currentToken, "
+            + "s.expiresAt = :expiresAt, s.lastUsedAt = :now "
+            + "where s.id = :id and s.refreshToken = :currentToken")
+    int rotate(@Param("id") Long id,
+               @Param("currentToken") String currentToken,
+               @Param("newToken") String newToken,
+               @Param("expiresAt") LocalDateTime expiresAt,
+               @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("delete from UserSession s where s.id = :id and s.userId = :userId")
+    int deleteByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Modifying
+    @Query("delete from UserSession s where s.refreshToken = :refreshToken")
+    int deleteByRefreshToken(@Param("refreshToken") String refreshToken);
+
+    /**
+     * Drops the least recently used sessions beyond the per-user limit.
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM user_sessions WHERE id IN (
+                SELECT id FROM user_sessions WHERE user_id = :userId
+                ORDER BY last_used_at DESC OFFSET :maxSessions)
+            """, nativeQuery = true)
+    int trimToLimit(@Param("userId") Long userId, @Param("maxSessions") int maxSessions);
+
+    /**
+     * Deletes at most {@code limit} expired sessions, oldest first, via the expires_at index.
+     */
+    @Modifying
+    @Query(value = """
+            DELETE FROM user_sessions WHERE id IN (
+                SELECT id FROM user_sessions WHERE expires_at < :now
+                ORDER BY expires_at LIMIT :limit)
+            """, nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
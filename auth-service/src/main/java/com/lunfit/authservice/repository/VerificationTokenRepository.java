@@ -2,16 +2,55 @@ package com.lunfit.authservice.repository;
 
 import com.lunfit.authservice.entity.VerificationToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface VerificationTokenRepository extends JpaRepository<VerificationToken, Long> {
 
-    Optional<VerificationToken> findByToken(String token);
+    /**
+     * The created_at bound lets PostgreSQL prune partitions older than it.
+     */
+    Optional<VerificationToken> findByTokenAndCreatedAtAfter(String token, LocalDateTime createdAfter);
 
-    void deleteByUserIdAndStatus(Long userId, VerificationToken.TokenStatus status);
+    /**
+     * Consumes a valid, unexpired email verification token and activates its user
+     * in one statement, returning the user's email. Concurrent calls with the same
+     * token serialize on the token row and only one of them returns a result.
+     * Only partitions that can still hold an unexpired token are probed.
+     */
+    @Query(value = """
+            WITH consumed AS (
+                UPDATE verification_tokens
+                   SET status = 'USED', used_at = :now
+                 WHERE token = :token
+                   AND created_at > :createdAfter
+                   AND token_type = 'EMAIL_VERIFICATION'
+                   AND status = 'VALID'
+                   AND expires_at > :now
+                RETURNING user_id),
+            activated AS (
+                UPDATE users
+                   SET status = 'ACTIVE', email_verified = TRUE, verified_at = :now
+                  FROM consumed
+                 WHERE users.id = consumed.user_id
+                RETURNING users.email)
+            SELECT email FROM activated
+            """, nativeQuery = true)
+    Optional<String> consumeAndActivate(@Param("token") String token,
+                                        @Param("createdAfter") LocalDateTime createdAfter,
+                                        @Param("now") LocalDateTime now);
 
-    void deleteByUserId(Long userId);
+    @Modifying
+    @Query("delete from VerificationToken t where t.user.id = :userId and t.status = :status")
+    void deleteByUserIdAndStatus(@Param("userId") Long userId, @Param("status") VerificationToken.TokenStatus status);
+
+    @Modifying
+    @Query("delete from VerificationToken t where t.user.id = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
 }
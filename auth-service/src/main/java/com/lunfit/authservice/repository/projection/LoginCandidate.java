@@ -0,0 +1,16 @@
+package com.lunfit.authservice.repository.projection;
+
+import com.lunfit.authservice.entity.User;
+
+/**
+ * Everything login needs about an account, read in one query across users and
+ * auth_credentials. Not a managed entity, so it is never dirty-checked.
+ */
+public record LoginCandidate(
+        Long userId,
+        String email,
+        User.UserStatus status,
+        Boolean emailVerified,
+        String passwordHash,
+        String deviceInfo) {
+}
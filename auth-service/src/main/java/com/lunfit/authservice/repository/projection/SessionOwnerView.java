@@ -0,0 +1,17 @@
+package com.lunfit.authservice.repository.projection;
+
+import com.lunfit.authservice.entity.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a session joined with the fields of its owner needed to mint
+ * an access token, loaded in a single query on refresh.
+ */
+public record SessionOwnerView(
+        Long sessionId,
+        LocalDateTime expiresAt,
+        Long userId,
+        String email,
+        User.UserStatus status) {
+}
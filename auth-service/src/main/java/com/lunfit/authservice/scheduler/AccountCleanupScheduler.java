@@ -1,42 +1,125 @@
 package com.lunfit.authservice.scheduler;
 
-import com.lunfit.authservice.entity.User;
 import com.lunfit.authservice.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.lunfit.authservice.service.EmailExistenceFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class AccountCleanupScheduler {
 
     private final UserRepository userRepository;
+    private final EmailExistenceFilter emailExistenceFilter;
+
+    private final Counter deletedAccounts;
+    private final Counter chunks;
+    private final Timer runTimer;
 
     @Value("${app.unverified-account-cleanup-days:30}")
     private int cleanupDays;
 
+    @Value("${app.cleanup.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.cleanup.throttle-ms:100}")
+    private long throttleMs;
+
+    @Value("${app.cleanup.time-budget-ms:300000}")
+    private long timeBudgetMs;
+
+    public AccountCleanupScheduler(
+            UserRepository userRepository,
+            EmailExistenceFilter emailExistenceFilter,
+            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.emailExistenceFilter = emailExistenceFilter;
+
+        this.deletedAccounts = Counter.builder("auth.cleanup.deleted")
+                .description("Rows removed by scheduled cleanup jobs")
+                .tag("type", "unverified_accounts")
+                .register(meterRegistry);
+        this.chunks = Counter.builder("auth.cleanup.chunks")
+                .description("Chunks committed by the nightly cleanup")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("auth.cleanup.run")
+                .description("Duration of nightly cleanup runs")
+                .register(meterRegistry);
+    }
+
     /**
      * Scheduled task to clean up unverified accounts
      * Runs daily at 2:00 AM
+     *
+     * Rows are deleted in small chunks, each committed on its own, with a pause
+     * between chunks. A run stops once its time budget is spent; whatever is left
+     * is picked up the next night.
      */
     @Scheduled(cron = "0 0 2 * * *")
-    @Transactional
     public void cleanupUnverifiedAccounts() {
         log.info("Starting cleanup of unverified accounts older than {} days", cleanupDays);
 
-        LocalDateTime cutoffDate = LocalDateTime.now().minusDays(cleanupDays);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeBudgetMs);
+        try {
+            int accounts = deleteUnverifiedAccounts(LocalDateTime.now().minusDays(cleanupDays), deadline);
 
-        int deletedCount = userRepository.deleteByStatusAndCreatedAtBefore(
-                User.UserStatus.PENDING,
-                cutoffDate
-        );
+            // Bloom filters cannot remove entries; rebuild to drop the deleted emails
+            if (accounts > 0) {
+                emailExistenceFilter.rebuild();
+            }
 
-        log.info("Cleanup completed. Deleted {} unverified accounts", deletedCount);
+            log.info("Cleanup completed. Deleted {} unverified accounts{}",
+                    accounts, System.nanoTime() > deadline ? " (time budget exhausted)" : "");
+        } finally {
+            runTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private int deleteUnverifiedAccounts(LocalDateTime cutoff, long deadline) {
+        int total = 0;
+        long afterId = 0;
+        while (System.nanoTime() < deadline) {
+            List<Long> ids = userRepository.findUnverifiedIdsCreatedBefore(cutoff, afterId, chunkSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            int deleted = userRepository.deleteUnverifiedByIds(ids, cutoff);
+            afterId = ids.get(ids.size() - 1);
+            total += deleted;
+            deletedAccounts.increment(deleted);
+            chunks.increment();
+            log.debug("Deleted {} unverified accounts up to id {}", deleted, afterId);
+
+            if (ids.size() < chunkSize || !pause()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Gives vacuum, replication and concurrent traffic room between chunks.
+     */
+    private boolean pause() {
+        if (throttleMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(throttleMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
     }
 }
@@ -0,0 +1,210 @@
+package com.lunfit.authservice.scheduler;
+
+import com.lunfit.authservice.entity.EmailOutboxMessage;
+import com.lunfit.authservice.service.EmailOutboxService;
+import com.lunfit.authservice.service.EmailService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * Delivers queued outbox email.
+ *
+ * Each round claims a batch of due rows (FOR UPDATE SKIP LOCKED, so several
+ * instances can dispatch side by side), sends them in parallel on the
+ * emailTaskExecutor and records the outcome per message. Claimed rows are leased;
+ * if this instance dies mid-batch they become due again once the lease expires,
+ * which makes delivery at-least-once.
+ */
+@Slf4j
+@Component
+public class EmailOutboxDispatcher {
+
+    private final EmailOutboxService emailOutboxService;
+    private final EmailService emailService;
+    private final Executor emailTaskExecutor;
+
+    private final Counter sentCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+    private final Timer deliveryLagTimer;
+    private final Counter purgedSentCounter;
+    private final Counter purgedUndeliveredCounter;
+    private final AtomicLong oldestPendingEpochMillis = new AtomicLong();
+
+    @Value("${app.email.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.email.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.email.outbox.lease-ms:60000}")
+    private long leaseMs;
+
+    @Value("${app.email.outbox.sent-retention-days:7}")
+    private int sentRetentionDays;
+
+    @Value("${app.email.outbox.undelivered-retention-days:30}")
+    private int undeliveredRetentionDays;
+
+    public EmailOutboxDispatcher(
+            EmailOutboxService emailOutboxService,
+            EmailService emailService,
+            @Qualifier("emailTaskExecutor") Executor emailTaskExecutor,
+            MeterRegistry meterRegistry) {
+        this.emailOutboxService = emailOutboxService;
+        this.emailService = emailService;
+        this.emailTaskExecutor = emailTaskExecutor;
+
+        this.sentCounter = Counter.builder("auth.email.outbox.sent")
+                .description("Outbox emails delivered")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("auth.email.outbox.retried")
+                .description("Outbox delivery attempts that failed and were rescheduled")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("auth.email.outbox.failed")
+                .description("Outbox emails given up on after the maximum number of attempts")
+                .register(meterRegistry);
+        this.deliveryLagTimer = Timer.builder("auth.email.outbox.delivery.lag")
+                .description("Time from enqueueing an email to handing it to the mail server")
+                .register(meterRegistry);
+        this.purgedSentCounter = Counter.builder("auth.cleanup.deleted")
+                .description("Rows removed by scheduled cleanup jobs")
+                .tag("type", "sent_emails")
+                .register(meterRegistry);
+        this.purgedUndeliveredCounter = Counter.builder("auth.cleanup.deleted")
+                .description("Rows removed by scheduled cleanup jobs")
+                .tag("type", "undelivered_emails")
+                .register(meterRegistry);
+        Gauge.builder("auth.email.outbox.lag", this, EmailOutboxDispatcher::oldestPendingSeconds)
+                .description("Age in seconds of the oldest undelivered outbox email")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.outbox.poll-interval-ms:1000}")
+    public void dispatch() {
+        Duration lease = Duration.ofMillis(leaseMs);
+        for (int round = 0; round < maxBatchesPerRun; round++) {
+            List<EmailOutboxMessage> batch = emailOutboxService.claim(batchSize, lease);
+            if (!batch.isEmpty()) {
+                deliver(batch, lease);
+            }
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        refreshLag();
+    }
+
+    private void deliver(List<EmailOutboxMessage> batch, Duration lease) {
+        List<CompletableFuture<Void>> sends = new ArrayList<>(batch.size());
+        for (EmailOutboxMessage message : batch) {
+            sends.add(send(message));
+        }
+
+        // Outcomes must be recorded before the lease runs out, or another dispatcher may resend
+        long deadline = System.nanoTime() + lease.toNanos() / 2;
+        List<Long> sentIds = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            EmailOutboxMessage message = batch.get(i);
+            Throwable error = awaitSend(sends.get(i), deadline);
+            if (error == null) {
+                sentIds.add(message.getId());
+                deliveryLagTimer.record(Duration.between(message.getCreatedAt(), LocalDateTime.now()));
+            } else if (emailOutboxService.markAttemptFailed(message, error)) {
+                failedCounter.increment();
+            } else {
+                retriedCounter.increment();
+            }
+        }
+
+        emailOutboxService.markSent(sentIds);
+        sentCounter.increment(sentIds.size());
+    }
+
+    private CompletableFuture<Void> send(EmailOutboxMessage message) {
+        try {
+            return switch (message.getEmailType()) {
+                case VERIFICATION -> CompletableFuture.runAsync(
+                        () -> emailService.sendVerificationEmail(message.getRecipient(), message.getPayload()),
+                        emailTaskExecutor);
+            };
+        } catch (RejectedExecutionException e) {
+            // Executor saturated; the message is retried with backoff like any other failure
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static Throwable awaitSend(CompletableFuture<Void> send, long deadlineNanos) {
+        try {
+            send.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return null;
+        } catch (ExecutionException e) {
+            return e.getCause();
+        } catch (TimeoutException e) {
+            return e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return e;
+        }
+    }
+
+    /**
+     * Removes settled messages past their retention in small batches: SENT rows
+     * by delivery time, FAILED and SUPERSEDED rows (kept longer, for
+     * investigating delivery problems) by creation time.
+     */
+    @Scheduled(cron = "0 30 * * * *")
+    public void purgeSettled() {
+        LocalDateTime now = LocalDateTime.now();
+        int sent = purge(emailOutboxService::purgeSent, now.minusDays(sentRetentionDays), purgedSentCounter);
+        int undelivered = purge(emailOutboxService::purgeUndelivered,
+                now.minusDays(undeliveredRetentionDays), purgedUndeliveredCounter);
+        if (sent + undelivered > 0) {
+            log.info("Purged {} delivered and {} undelivered outbox emails", sent, undelivered);
+        }
+    }
+
+    private int purge(BiFunction<LocalDateTime, Integer, Integer> deleteBatch, LocalDateTime before, Counter counter) {
+        int total = 0;
+        int deleted;
+        do {
+            deleted = deleteBatch.apply(before, batchSize * 10);
+            total += deleted;
+            counter.increment(deleted);
+        } while (deleted == batchSize * 10);
+        return total;
+    }
+
+    private void refreshLag() {
+        oldestPendingEpochMillis.set(emailOutboxService.oldestPendingCreatedAt()
+                .map(createdAt -> createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+                .orElse(0L));
+    }
+
+    private double oldestPendingSeconds() {
+        long oldest = oldestPendingEpochMillis.get();
+        return oldest == 0 ? 0 : (System.currentTimeMillis() - oldest) / 1000.0;
+    }
+}
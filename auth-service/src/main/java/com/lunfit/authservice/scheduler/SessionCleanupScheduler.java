@@ -0,0 +1,51 @@
+package com.lunfit.authservice.scheduler;
+
+import com.lunfit.authservice.service.SessionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class SessionCleanupScheduler {
+
+    private final SessionService sessionService;
+    private final Counter deletedSessions;
+
+    @Value("${app.sessions.prune-batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.sessions.prune-max-batches:20}")
+    private int maxBatches;
+
+    public SessionCleanupScheduler(SessionService sessionService, MeterRegistry meterRegistry) {
+        this.sessionService = sessionService;
+        this.deletedSessions = Counter.builder("auth.cleanup.deleted")
+                .description("Rows removed by scheduled cleanup jobs")
+                .tag("type", "expired_sessions")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Scheduled task to remove expired sessions in small batches.
+     * Each batch is its own short transaction; a run stops early once a batch comes back short.
+     */
+    @Scheduled(fixedDelayString = "${app.sessions.prune-interval-ms:300000}")
+    public void pruneExpiredSessions() {
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int deleted = sessionService.pruneExpired(batchSize);
+            total += deleted;
+            deletedSessions.increment(deleted);
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Pruned {} expired sessions", total);
+        }
+    }
+}
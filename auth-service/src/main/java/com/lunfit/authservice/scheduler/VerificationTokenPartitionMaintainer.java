@@ -0,0 +1,181 @@
+package com.lunfit.authservice.scheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the daily partitions of verification_tokens in shape: partitions for the
+ * coming days are created ahead of time, and partitions whose whole range is past
+ * the retention period are detached and dropped, which costs no row-level I/O.
+ *
+ * A detach that was interrupted leaves its partition "detach pending"; it is
+ * finalized on the next run, and a partition detached but not yet dropped is
+ * dropped. There is no DEFAULT partition, so inserts fail once the premade days
+ * run out: failed runs, the last successful run and the number of days covered
+ * ahead are published as metrics to alert on.
+ */
+@Slf4j
+@Component
+public class VerificationTokenPartitionMaintainer {
+
+    private static final String PARENT_TABLE = "verification_tokens";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final String SELECT_PARTITIONS = """
+            SELECT c.relname, pg_get_expr(c.relpartbound, c.oid), i.inhdetachpending
+              FROM pg_inherits i
+              JOIN pg_class c ON c.oid = i.inhrelid
+             WHERE i.inhparent = ?::regclass
+            """;
+
+    // Daily partitions that are no longer attached: a DROP failed after the detach
+    private static final String SELECT_DETACHED = """
+            SELECT relname FROM pg_class
+             WHERE relkind = 'r' AND NOT relispartition
+               AND relname ~ '^verification_tokens_p[0-9]{8}$'
+            """;
+
+    // e.g. FOR VALUES FROM ('2026-10-17 00:00:00') TO ('2026-10-18 00:00:00')
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Counter created;
+    private final Counter dropped;
+    private final Counter failures;
+    private final AtomicLong daysAhead = new AtomicLong(-1);
+    private final AtomicLong lastSuccessEpochSeconds = new AtomicLong();
+
+    @Value("${app.verification-tokens.partitions.premake-days:7}")
+    private int premakeDays;
+
+    @Value("${app.verification-tokens.partitions.retention-days:7}")
+    private int retentionDays;
+
+    public VerificationTokenPartitionMaintainer(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.created = Counter.builder("auth.verification-tokens.partitions")
+                .description("verification_tokens partitions created or dropped")
+                .tag("action", "created")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("auth.verification-tokens.partitions")
+                .description("verification_tokens partitions created or dropped")
+                .tag("action", "dropped")
+                .register(meterRegistry);
+        this.failures = Counter.builder("auth.verification-tokens.partitions.maintenance.failures")
+                .description("verification_tokens partition maintenance steps that failed")
+                .register(meterRegistry);
+        Gauge.builder("auth.verification-tokens.partitions.days-ahead", daysAhead, AtomicLong::get)
+                .description("Consecutive days from today with a partition, as of the last check; "
+                        + "inserts fail once this reaches 0")
+                .baseUnit("days")
+                .register(meterRegistry);
+        Gauge.builder("auth.verification-tokens.partitions.maintenance.last-success",
+                        lastSuccessEpochSeconds, AtomicLong::get)
+                .description("Epoch second of the last fully successful maintenance run")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void maintainOnStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "0 15 * * * *")
+    public void maintain() {
+        // Creation comes first and is attempted even if retention is failing
+        boolean succeeded = step("create upcoming partitions", this::createUpcomingPartitions);
+        succeeded &= step("drop expired partitions", this::dropExpiredPartitions);
+        if (succeeded) {
+            lastSuccessEpochSeconds.set(Instant.now().getEpochSecond());
+        }
+    }
+
+    private boolean step(String description, Runnable action) {
+        try {
+            action.run();
+            return true;
+        } catch (DataAccessException e) {
+            failures.increment();
+            log.error("verification_tokens partition maintenance failed to {}", description, e);
+            return false;
+        }
+    }
+
+    private void createUpcomingPartitions() {
+        LocalDate today = LocalDate.now();
+        for (int offset = 0; offset <= premakeDays; offset++) {
+            LocalDate day = today.plusDays(offset);
+            String partition = PARENT_TABLE + "_p" + PARTITION_SUFFIX.format(day);
+            Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition);
+            if (!Boolean.TRUE.equals(exists)) {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + PARENT_TABLE
+                        + " FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')");
+                created.increment();
+                log.info("Created partition {}", partition);
+            }
+            daysAhead.set(offset + 1);
+        }
+    }
+
+    private void dropExpiredPartitions() {
+        LocalDateTime cutoff = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+        List<Partition> partitions = jdbcTemplate.query(SELECT_PARTITIONS,
+                (rs, rowNum) -> new Partition(rs.getString(1), rs.getString(2), rs.getBoolean(3)), PARENT_TABLE);
+
+        for (Partition partition : partitions) {
+            if (partition.detachPending()) {
+                // An earlier DETACH ... CONCURRENTLY was interrupted; it cannot be retried, only finalized
+                jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION "
+                        + partition.name() + " FINALIZE");
+                drop(partition.name(), "its detach was finalized");
+                continue;
+            }
+
+            Matcher matcher = UPPER_BOUND.matcher(partition.bound());
+            if (!matcher.find()) {
+                continue; // DEFAULT partition, or an unbounded range
+            }
+            LocalDateTime upperBound = LocalDateTime.parse(matcher.group(1).replace(' ', 'T'));
+            if (upperBound.isAfter(cutoff)) {
+                continue;
+            }
+
+            // CONCURRENTLY avoids blocking inserts and lookups on the parent while detaching
+            jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION "
+                    + partition.name() + " CONCURRENTLY");
+            drop(partition.name(), "tokens created before " + upperBound);
+        }
+
+        for (String detached : jdbcTemplate.queryForList(SELECT_DETACHED, String.class)) {
+            drop(detached, "left detached by an earlier run");
+        }
+    }
+
+    private void drop(String partition, String reason) {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+        dropped.increment();
+        log.info("Dropped partition {} ({})", partition, reason);
+    }
+
+    private record Partition(String name, String bound, boolean detachPending) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.lunfit.authservice.security;
+
+/**
+ * Principal placed in the security context for requests carrying a valid access token.
+ */
+public record AuthenticatedUser(Long userId, String email, String status) {
+}
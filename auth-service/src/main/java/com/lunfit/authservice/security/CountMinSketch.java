@@ -0,0 +1,92 @@
+package com.lunfit.authservice.security;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Count-min sketch over string keys: approximate per-key counts in fixed memory.
+ * Estimates never undercount (barring concurrent updates of one key); they
+ * overcount by at most a small fraction of the total with high probability. Counters can be halved to let old activity fade.
+ */
+public class CountMinSketch {
+
+    private final int depth;
+    private final int widthMask;
+    private final AtomicIntegerArray counters;
+
+    /**
+     * @param depth number of hash rows
+     * @param width counters per row, rounded up to a power of two
+     */
+    public CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        int roundedWidth = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        this.widthMask = roundedWidth - 1;
+        this.counters = new AtomicIntegerArray(depth * roundedWidth);
+    }
+
+    /**
+     * Adds one occurrence of {@code key} and returns its new estimated count.
+     *
+     * Conservative update: only the counters at the current minimum are raised,
+     * since the others already overcount because of collisions. This keeps
+     * estimates far tighter when many distinct keys share the sketch; a count
+     * may be lost when the same key is incremented concurrently.
+     */
+    public int increment(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(row, h1 + row * h2)));
+        }
+        int updated = estimate + 1;
+        for (int row = 0; row < depth; row++) {
+            counters.accumulateAndGet(index(row, h1 + row * h2), updated, Math::max);
+        }
+        return updated;
+    }
+
+    public int estimate(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(index(row, h1 + row * h2)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Halves every counter. Concurrent increments may be partly lost, which only
+     * makes the decay marginally stronger.
+     */
+    public void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            int value = counters.get(i);
+            if (value != 0) {
+                counters.set(i, value >>> 1);
+            }
+        }
+    }
+
+    private int index(int row, int hash) {
+        return row * (widthMask + 1) + (hash & widthMask);
+    }
+
+    /**
+     * 64-bit FNV-1a with a final mix; the two halves feed double hashing.
+     */
+    private static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
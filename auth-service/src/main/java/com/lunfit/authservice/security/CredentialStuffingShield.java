@@ -0,0 +1,273 @@
+package com.lunfit.authservice.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks failed logins in fixed memory and turns away sources that keep failing
+ * before they cost a database lookup or a BCrypt comparison.
+ *
+ * Failures are counted per client IP, per network (/24 for IPv4, /64 for IPv6,
+ * to catch rotating addresses in one range) and per target email, each in a
+ * count-min sketch and a Space-Saving top-K. Counts are halved every decay
+ * interval, so a source is let back in once it stops failing.
+ *
+ * A distributed attack spreads failures over many keys and fills the sketch,
+ * which then overestimates every key. So the sketch is only a lock-free first
+ * check: a key is over its threshold only if the top-K also tracks it with at
+ * least that many certain failures ({@code count - error}). The top-K also
+ * serves the {@code loginthreats} actuator endpoint.
+ *
+ * An email over its threshold is never locked as a whole, or anyone could lock
+ * the owner out: only the addresses that keep failing against that account
+ * (per IP and email pair) are turned away.
+ */
+@Slf4j
+@Component
+public class CredentialStuffingShield {
+
+    public enum Dimension {
+        IP, NETWORK, EMAIL
+    }
+
+    /**
+     * A client address and its network, parsed once per request.
+     */
+    public record Source(String ip, String network) {
+    }
+
+    private final Map<Dimension, Tracker> trackers = new EnumMap<>(Dimension.class);
+    private final Tracker emailSources;
+    private final boolean enabled;
+
+    public CredentialStuffingShield(
+            MeterRegistry meterRegistry,
+            @Value("${app.stuffing-shield.enabled:true}") boolean enabled,
+            @Value("${app.stuffing-shield.sketch-depth:4}") int depth,
+            @Value("${app.stuffing-shield.sketch-width:16384}") int width,
+            @Value("${app.stuffing-shield.top-k:256}") int topK,
+            @Value("${app.stuffing-shield.ip-threshold:20}") int ipThreshold,
+            @Value("${app.stuffing-shield.network-threshold:100}") int networkThreshold,
+            @Value("${app.stuffing-shield.email-threshold:10}") int emailThreshold,
+            @Value("${app.stuffing-shield.email-source-threshold:3}") int emailSourceThreshold) {
+        this.enabled = enabled;
+        trackers.put(Dimension.IP, new Tracker("ip", depth, width, topK, ipThreshold, meterRegistry));
+        trackers.put(Dimension.NETWORK, new Tracker("network", depth, width, topK, networkThreshold, meterRegistry));
+        trackers.put(Dimension.EMAIL, new Tracker("email", depth, width, topK, emailThreshold, meterRegistry));
+        this.emailSources = new Tracker("email_source", depth, width, topK, emailSourceThreshold, meterRegistry);
+    }
+
+    public Source source(String clientIp) {
+        return new Source(clientIp, network(clientIp));
+    }
+
+    /**
+     * Whether recent failures from this source, or from this source against an
+     * account under attack, are over a threshold. Only reads the trackers.
+     */
+    public boolean isBlocked(Source source, String email) {
+        if (!enabled) {
+            return false;
+        }
+        return trackers.get(Dimension.IP).isOver(source.ip())
+                || trackers.get(Dimension.NETWORK).isOver(source.network())
+                || trackers.get(Dimension.EMAIL).reached(email)
+                    && emailSources.isOver(emailSource(source.ip(), email));
+    }
+
+    public void recordFailure(Source source, String email) {
+        if (!enabled) {
+            return;
+        }
+        trackers.get(Dimension.IP).record(source.ip());
+        trackers.get(Dimension.NETWORK).record(source.network());
+        trackers.get(Dimension.EMAIL).record(email);
+        emailSources.record(emailSource(source.ip(), email));
+    }
+
+    public Map<Dimension, List<SpaceSavingTopK.Entry>> topOffenders(int limit) {
+        Map<Dimension, List<SpaceSavingTopK.Entry>> top = new EnumMap<>(Dimension.class);
+        trackers.forEach((dimension, tracker) -> top.put(dimension, tracker.topK.top(limit)));
+        return top;
+    }
+
+    @Scheduled(fixedDelayString = "${app.stuffing-shield.decay-interval-ms:60000}")
+    public void decay() {
+        trackers.values().forEach(Tracker::decay);
+        emailSources.decay();
+    }
+
+    private static String emailSource(String clientIp, String email) {
+        return clientIp == null || email == null ? null : clientIp + ' ' + email;
+    }
+
+    /**
+     * Collapses a literal address to its /24 (IPv4) or /64 (IPv6) network, or
+     * returns null if it is not one. Parsed by hand: InetAddress would resolve
+     * anything that is not a literal, and allocates on this hot path.
+     */
+    static String network(String clientIp) {
+        if (clientIp == null) {
+            return null;
+        }
+        if (clientIp.indexOf(':') < 0) {
+            long address = ipv4(clientIp, 0, clientIp.length());
+            return address < 0 ? null : ipv4Network(address);
+        }
+        return ipv6Network(clientIp);
+    }
+
+    private static String ipv4Network(long address) {
+        return (address >>> 24) + "." + (address >>> 16 & 0xff) + "." + (address >>> 8 & 0xff) + ".0/24";
+    }
+
+    private static String ipv6Network(String ip) {
+        int end = ip.indexOf('%'); // zone id
+        if (end < 0) {
+            end = ip.length();
+        }
+        int gap = ip.indexOf("::");
+        int[] hextets = new int[8];
+        if (gap < 0 || gap >= end) {
+            if (hextets(ip, 0, end, hextets) != 8) {
+                return null;
+            }
+        } else {
+            int head = hextets(ip, 0, gap, hextets);
+            int[] tail = new int[8];
+            int tailCount = hextets(ip, gap + 2, end, tail);
+            if (head < 0 || tailCount < 0 || head + tailCount > 7) {
+                return null;
+            }
+            System.arraycopy(tail, 0, hextets, 8 - tailCount, tailCount);
+        }
+
+        if (hextets[0] == 0 && hextets[1] == 0 && hextets[2] == 0 && hextets[3] == 0
+                && hextets[4] == 0 && hextets[5] == 0xffff) {
+            return ipv4Network((long) hextets[6] << 16 | hextets[7]); // IPv4-mapped
+        }
+        return Integer.toHexString(hextets[0]) + ":" + Integer.toHexString(hextets[1]) + ":"
+                + Integer.toHexString(hextets[2]) + ":" + Integer.toHexString(hextets[3]) + "::/64";
+    }
+
+    /**
+     * Parses colon-separated hextets, the last of which may be a dotted IPv4
+     * address (two hextets), into {@code out}.
+     *
+     * @return the number of hextets, or -1 if the text is not valid
+     */
+    private static int hextets(String ip, int from, int to, int[] out) {
+        if (from == to) {
+            return 0;
+        }
+        int count = 0;
+        int start = from;
+        for (int i = from; i <= to; i++) {
+            if (i < to && ip.charAt(i) != ':') {
+                continue;
+            }
+            if (i == to && ip.indexOf('.', start) >= 0 && ip.indexOf('.', start) < to) {
+                long address = ipv4(ip, start, to);
+                if (address < 0 || count > 6) {
+                    return -1;
+                }
+                out[count++] = (int) (address >>> 16);
+                out[count++] = (int) (address & 0xffff);
+                return count;
+            }
+            if (i - start < 1 || i - start > 4 || count == 8) {
+                return -1;
+            }
+            int value = 0;
+            for (int j = start; j < i; j++) {
+                int digit = Character.digit(ip.charAt(j), 16);
+                if (digit < 0) {
+                    return -1;
+                }
+                value = value << 4 | digit;
+            }
+            out[count++] = value;
+            start = i + 1;
+        }
+        return count;
+    }
+
+    /**
+     * @return the dotted-quad address in {@code ip[from, to)} as an unsigned value, or -1
+     */
+    private static long ipv4(String ip, int from, int to) {
+        long address = 0;
+        int octets = 0;
+        int value = -1;
+        for (int i = from; i < to; i++) {
+            char c = ip.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return -1;
+                }
+            } else if (c == '.' && value >= 0 && octets < 3) {
+                address = address << 8 | value;
+                octets++;
+                value = -1;
+            } else {
+                return -1;
+            }
+        }
+        return value < 0 || octets != 3 ? -1 : address << 8 | value;
+    }
+
+    private static final class Tracker {
+
+        private final CountMinSketch sketch;
+        private final SpaceSavingTopK topK;
+        private final int threshold;
+        private final Counter blocked;
+
+        private Tracker(String dimension, int depth, int width, int topK, int threshold,
+                        MeterRegistry meterRegistry) {
+            this.sketch = new CountMinSketch(depth, width);
+            this.topK = new SpaceSavingTopK(topK);
+            this.threshold = threshold;
+            this.blocked = Counter.builder("auth.stuffing.blocked")
+                    .description("Login attempts turned away by the credential-stuffing shield")
+                    .tag("dimension", dimension)
+                    .register(meterRegistry);
+        }
+
+        private boolean reached(String key) {
+            // The sketch never undercounts and needs no lock, so it rules out most keys first
+            return key != null
+                    && sketch.estimate(key) >= threshold
+                    && topK.guaranteedCount(key) >= threshold;
+        }
+
+        private boolean isOver(String key) {
+            if (!reached(key)) {
+                return false;
+            }
+            blocked.increment();
+            return true;
+        }
+
+        private void record(String key) {
+            if (key != null) {
+                sketch.increment(key);
+                topK.offer(key);
+            }
+        }
+
+        private void decay() {
+            sketch.decay();
+            topK.decay();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.lunfit.authservice.security;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Small free list for JCA engines ({@link java.security.Signature},
+ * {@link javax.crypto.Mac}, {@link java.security.MessageDigest}) that are costly
+ * to look up but not thread-safe.
+ *
+ * A ThreadLocal only pays off on long-lived pooled threads; with virtual threads
+ * every request runs on a fresh thread and would build its own engine. Callers
+ * instead {@link #borrow()} an idle engine, or a new one when none is free, and
+ * {@link #release(Object)} it when done. At most {@code capacity} idle engines
+ * are kept, so the pool stays small however many threads pass through.
+ */
+public final class CryptoPool<T> {
+
+    private final ArrayBlockingQueue<T> idle;
+    private final Supplier<T> factory;
+
+    public CryptoPool(int capacity, Supplier<T> factory) {
+        this.idle = new ArrayBlockingQueue<>(capacity);
+        this.factory = factory;
+        release(factory.get()); // fail fast on an unsupported algorithm
+    }
+
+    /**
+     * Sized for the number of threads that can actually run crypto at once.
+     */
+    public static int defaultCapacity() {
+        return Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    public T borrow() {
+        T engine = idle.poll();
+        return engine != null ? engine : factory.get();
+    }
+
+    /**
+     * Returns an engine after a completed operation. Engines over capacity are dropped.
+     */
+    public void release(T engine) {
+        idle.offer(engine);
+    }
+}
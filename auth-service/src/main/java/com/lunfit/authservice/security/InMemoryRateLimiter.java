@@ -0,0 +1,68 @@
+package com.lunfit.authservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-instance rate limiter. Each bucket is a single {@link AtomicLong} holding
+ * its theoretical arrival time (GCRA, equivalent to a token bucket), updated with
+ * compare-and-set, so acquiring a permit takes no lock and allocates nothing once
+ * the bucket exists.
+ *
+ * Buckets live in a bounded Caffeine cache per policy and expire after one idle
+ * window. By then the bucket would be full again, so evicting it changes nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryRateLimiter implements RateLimiter {
+
+    private final ConcurrentHashMap<String, Cache<String, AtomicLong>> buckets = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final long maxKeysPerPolicy;
+    private final long origin = System.nanoTime();
+
+    public InMemoryRateLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${app.rate-limit.max-keys-per-policy:100000}") long maxKeysPerPolicy) {
+        this.meterRegistry = meterRegistry;
+        this.maxKeysPerPolicy = maxKeysPerPolicy;
+    }
+
+    @Override
+    public boolean tryAcquire(RateLimitPolicy policy, String key) {
+        AtomicLong bucket = buckets.computeIfAbsent(policy.name(), name -> newCache(policy))
+                .get(key, k -> new AtomicLong());
+
+        long now = System.nanoTime() - origin;
+        long interval = policy.emissionIntervalNanos();
+        long tolerance = policy.burstToleranceNanos();
+        while (true) {
+            long arrival = bucket.get();
+            long start = Math.max(arrival, now);
+            if (start - now > tolerance) {
+                return false;
+            }
+            if (bucket.compareAndSet(arrival, start + interval)) {
+                return true;
+            }
+        }
+    }
+
+    private Cache<String, AtomicLong> newCache(RateLimitPolicy policy) {
+        Cache<String, AtomicLong> cache = Caffeine.newBuilder()
+                .maximumSize(maxKeysPerPolicy)
+                .expireAfterAccess(policy.window())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "rate-limit-" + policy.name());
+        return cache;
+    }
+}
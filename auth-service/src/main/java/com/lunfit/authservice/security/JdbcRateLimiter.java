@@ -0,0 +1,76 @@
+package com.lunfit.authservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiter shared by all instances through the rate_limit_buckets table.
+ * Same algorithm as {@link InMemoryRateLimiter}: one conditional upsert per
+ * check stores the bucket's theoretical arrival time and only succeeds while
+ * the bucket still has a permit.
+ *
+ * Each check commits on its own (REQUIRES_NEW): a permit taken by a request
+ * whose business transaction later rolls back stays taken, and the bucket row
+ * lock is released immediately instead of being held across the caller's work.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "jdbc")
+public class JdbcRateLimiter implements RateLimiter {
+
+    private static final String ACQUIRE = """
+            INSERT INTO rate_limit_buckets (bucket_key, arrival_micros)
+            VALUES (?, ?)
+            ON CONFLICT (bucket_key) DO UPDATE
+               SET arrival_micros = GREATEST(rate_limit_buckets.arrival_micros, ?) + ?
+             WHERE GREATEST(rate_limit_buckets.arrival_micros, ?) - ? <= ?
+            RETURNING arrival_micros
+            """;
+    private static final String DELETE_FULL_BUCKETS =
+            "DELETE FROM rate_limit_buckets WHERE arrival_micros < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ownTransaction;
+
+    public JdbcRateLimiter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        log.info("Rate limits are enforced through the database");
+    }
+
+    @Override
+    public boolean tryAcquire(RateLimitPolicy policy, String key) {
+        long now = nowMicros();
+        long interval = TimeUnit.NANOSECONDS.toMicros(policy.emissionIntervalNanos());
+        long tolerance = TimeUnit.NANOSECONDS.toMicros(policy.burstToleranceNanos());
+
+        return Boolean.TRUE.equals(ownTransaction.execute(status -> !jdbcTemplate.queryForList(ACQUIRE, Long.class,
+                policy.name() + ':' + key, now + interval,
+                now, interval,
+                now, now, tolerance).isEmpty()));
+    }
+
+    /**
+     * Buckets whose arrival time has passed are full again and can be dropped.
+     */
+    @Scheduled(fixedDelayString = "${app.rate-limit.prune-interval-ms:600000}")
+    public void pruneFullBuckets() {
+        int deleted = jdbcTemplate.update(DELETE_FULL_BUCKETS, nowMicros());
+        if (deleted > 0) {
+            log.debug("Pruned {} rate limit buckets", deleted);
+        }
+    }
+
+    private static long nowMicros() {
+        return TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,264 @@
+package com.lunfit.authservice.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lunfit.authservice.config.JwtConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.interfaces.ECKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * ES256 signing keys, indexed by kid.
+ *
+ * Exactly one key is active for signing; every configured key is accepted for
+ * verification and published in the JWK Set, which lets keys overlap during a
+ * rotation. The JWK Set document is serialized once at startup. Without
+ * configured keys startup fails, except under the dev profile, where an
+ * ephemeral key is generated. Keys must be on P-256, and a kid's private key
+ * must match its public key; a bad key fails startup rather than publishing a
+ * JWK that nothing verifies against.
+ */
+@Slf4j
+@Component
+public class JwtKeyRing {
+
+    public static final String ALGORITHM = "ES256";
+
+    private static final String EPHEMERAL_KEY_PROFILE = "dev";
+
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+    private static final int P256_COORDINATE_BYTES = 32;
+    private static final String P256 = "secp256r1";
+    private static final ECParameterSpec P256_PARAMS = p256Parameters();
+    private static final byte[] PAIR_CHECK_MESSAGE = "jwt-key-ring-pair-check".getBytes(StandardCharsets.US_ASCII);
+
+    private final ActiveKey activeKey;
+    private final Map<String, PublicKey> verificationKeys = new LinkedHashMap<>();
+    private final byte[] jwks;
+    private final String jwksEtag;
+
+    public JwtKeyRing(JwtConfig jwtConfig, ObjectMapper objectMapper, Environment environment) {
+        List<JwtConfig.SigningKey> configured = jwtConfig.getKeys();
+        PrivateKey activePrivateKey = null;
+        String activeKid = jwtConfig.getActiveKeyId();
+
+        if (configured.isEmpty()) {
+            if (!environment.acceptsProfiles(Profiles.of(EPHEMERAL_KEY_PROFILE))) {
+                throw new IllegalStateException("No jwt.keys configured. Configure an ES256 key pair "
+                        + "(JWT_KEYS_0_KID / _PRIVATE_KEY / _PUBLIC_KEY); ephemeral keys are only "
+                        + "generated under the " + EPHEMERAL_KEY_PROFILE + " profile");
+            }
+            KeyPair pair = generateEphemeralKeyPair();
+            activeKid = "ephemeral-" + UUID.randomUUID();
+            activePrivateKey = pair.getPrivate();
+            verificationKeys.put(activeKid, pair.getPublic());
+            log.warn("No jwt.keys configured; signing with ephemeral key {}. "
+                    + "Tokens will not survive a restart and will not verify on other instances.", activeKid);
+        } else {
+            if (!StringUtils.hasText(activeKid)) {
+                activeKid = configured.get(0).getKid();
+            }
+            for (JwtConfig.SigningKey key : configured) {
+                PublicKey publicKey = decodePublicKey(key.getKid(), key.getPublicKey());
+                verificationKeys.put(key.getKid(), publicKey);
+                PrivateKey privateKey = null;
+                if (StringUtils.hasText(key.getPrivateKey())) {
+                    privateKey = decodePrivateKey(key.getKid(), key.getPrivateKey());
+                    checkPair(key.getKid(), privateKey, publicKey);
+                }
+                if (key.getKid().equals(activeKid)) {
+                    if (privateKey == null) {
+                        throw new IllegalStateException("Active JWT key " + activeKid + " has no private key");
+                    }
+                    activePrivateKey = privateKey;
+                }
+            }
+            if (activePrivateKey == null) {
+                throw new IllegalStateException("jwt.active-key-id " + activeKid + " is not among jwt.keys");
+            }
+        }
+
+        Map<String, String> header = new LinkedHashMap<>();
+        header.put("alg", ALGORITHM);
+        header.put("kid", activeKid);
+        this.activeKey = new ActiveKey(activeKid, activePrivateKey,
+                BASE64_URL.encodeToString(toJson(objectMapper, header)));
+        this.jwks = toJson(objectMapper, Map.of("keys", jwkList()));
+        this.jwksEtag = "\"" + HexFormat.of().formatHex(sha256(jwks), 0, 8) + "\"";
+
+        log.info("JWT key ring loaded: signing with {}, {} verification key(s)", activeKid, verificationKeys.size());
+    }
+
+    public ActiveKey activeKey() {
+        return activeKey;
+    }
+
+    public PublicKey verificationKey(String kid) {
+        return kid == null ? null : verificationKeys.get(kid);
+    }
+
+    public byte[] jwks() {
+        return jwks;
+    }
+
+    public String jwksEtag() {
+        return jwksEtag;
+    }
+
+    private List<Map<String, String>> jwkList() {
+        List<Map<String, String>> keys = new ArrayList<>();
+        verificationKeys.forEach((kid, publicKey) -> {
+            ECPublicKey ecKey = (ECPublicKey) publicKey;
+            Map<String, String> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("use", "sig");
+            jwk.put("alg", ALGORITHM);
+            jwk.put("kid", kid);
+            jwk.put("x", encodeCoordinate(ecKey.getW().getAffineX()));
+            jwk.put("y", encodeCoordinate(ecKey.getW().getAffineY()));
+            keys.add(jwk);
+        });
+        return keys;
+    }
+
+    private static byte[] toJson(ObjectMapper objectMapper, Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize JWT key material", e);
+        }
+    }
+
+    private static String encodeCoordinate(BigInteger coordinate) {
+        byte[] raw = coordinate.toByteArray();
+        // toByteArray may add a leading zero sign byte, never more
+        int offset = raw.length > P256_COORDINATE_BYTES && raw[0] == 0 ? 1 : 0;
+        int length = raw.length - offset;
+        if (length > P256_COORDINATE_BYTES) {
+            throw new IllegalStateException("EC coordinate does not fit in " + P256_COORDINATE_BYTES + " bytes");
+        }
+        byte[] fixed = new byte[P256_COORDINATE_BYTES];
+        System.arraycopy(raw, offset, fixed, P256_COORDINATE_BYTES - length, length);
+        return BASE64_URL.encodeToString(fixed);
+    }
+
+    private static KeyPair generateEphemeralKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec(P256));
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to generate EC key pair", e);
+        }
+    }
+
+    private static PrivateKey decodePrivateKey(String kid, String encoded) {
+        PrivateKey key;
+        try {
+            key = KeyFactory.getInstance("EC").generatePrivate(new PKCS8EncodedKeySpec(decodePem(encoded)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid EC private key for JWT key " + kid, e);
+        }
+        requireP256(kid, ((ECKey) key).getParams());
+        return key;
+    }
+
+    private static PublicKey decodePublicKey(String kid, String encoded) {
+        PublicKey key;
+        try {
+            key = KeyFactory.getInstance("EC").generatePublic(new X509EncodedKeySpec(decodePem(encoded)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid EC public key for JWT key " + kid, e);
+        }
+        requireP256(kid, ((ECKey) key).getParams());
+        return key;
+    }
+
+    private static void requireP256(String kid, ECParameterSpec params) {
+        if (!params.getCurve().equals(P256_PARAMS.getCurve())
+                || !params.getGenerator().equals(P256_PARAMS.getGenerator())
+                || !params.getOrder().equals(P256_PARAMS.getOrder())
+                || params.getCofactor() != P256_PARAMS.getCofactor()) {
+            throw new IllegalStateException("JWT key " + kid + " is not on P-256, which " + ALGORITHM + " requires");
+        }
+    }
+
+    /**
+     * Signs with the private key and verifies with the public one, so a kid
+     * whose halves come from different pairs fails at startup.
+     */
+    private static void checkPair(String kid, PrivateKey privateKey, PublicKey publicKey) {
+        try {
+            Signature signer = Signature.getInstance("SHA256withECDSA");
+            signer.initSign(privateKey);
+            signer.update(PAIR_CHECK_MESSAGE);
+            byte[] signature = signer.sign();
+
+            Signature verifier = Signature.getInstance("SHA256withECDSA");
+            verifier.initVerify(publicKey);
+            verifier.update(PAIR_CHECK_MESSAGE);
+            if (!verifier.verify(signature)) {
+                throw new IllegalStateException("Private and public key of JWT key " + kid + " do not match");
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to check JWT key " + kid, e);
+        }
+    }
+
+    private static ECParameterSpec p256Parameters() {
+        try {
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec(P256));
+            return parameters.getParameterSpec(ECParameterSpec.class);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("P-256 not available", e);
+        }
+    }
+
+    private static byte[] decodePem(String encoded) {
+        String base64 = encoded.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * The key currently used for signing, with its JOSE header pre-encoded.
+     */
+    public record ActiveKey(String kid, PrivateKey privateKey, String encodedHeader) {
+    }
+}
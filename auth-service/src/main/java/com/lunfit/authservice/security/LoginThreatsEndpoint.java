@@ -0,0 +1,38 @@
+package com.lunfit.authservice.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/loginthreats}: current top offenders tracked by the
+ * {@link CredentialStuffingShield}, up to {@value #LIMIT} per dimension.
+ * Email addresses are masked.
+ */
+@Component
+@Endpoint(id = "loginthreats")
+@RequiredArgsConstructor
+public class LoginThreatsEndpoint {
+
+    private static final int LIMIT = 20;
+
+    private final CredentialStuffingShield shield;
+
+    @ReadOperation
+    public Map<CredentialStuffingShield.Dimension, List<SpaceSavingTopK.Entry>> topOffenders() {
+        Map<CredentialStuffingShield.Dimension, List<SpaceSavingTopK.Entry>> top = shield.topOffenders(LIMIT);
+        top.computeIfPresent(CredentialStuffingShield.Dimension.EMAIL, (dimension, entries) -> entries.stream()
+                .map(entry -> new SpaceSavingTopK.Entry(mask(entry.key()), entry.count(), entry.error()))
+                .toList());
+        return top;
+    }
+
+    private static String mask(String email) {
+        int at = email.indexOf('@');
+        return at <= 1 ? "***" + email.substring(Math.max(at, 0)) : email.charAt(0) + "***" + email.substring(at);
+    }
+}
@@ -0,0 +1,31 @@
+package com.lunfit.authservice.security;
+
+import java.time.Duration;
+
+/**
+ * Allows {@code capacity} requests per key in a burst, refilling one permit every
+ * {@code window / capacity}.
+ */
+public record RateLimitPolicy(String name, int capacity, Duration window) {
+
+    public RateLimitPolicy {
+        if (capacity < 1 || window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Invalid rate limit policy " + name);
+        }
+    }
+
+    /**
+     * Time it takes to refill a single permit.
+     */
+    public long emissionIntervalNanos() {
+        return window.toNanos() / capacity;
+    }
+
+    /**
+     * How far ahead of now a bucket's theoretical arrival time may be before it
+     * counts as empty.
+     */
+    public long burstToleranceNanos() {
+        return emissionIntervalNanos() * (capacity - 1);
+    }
+}
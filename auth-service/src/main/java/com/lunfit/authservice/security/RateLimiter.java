@@ -0,0 +1,19 @@
+package com.lunfit.authservice.security;
+
+/**
+ * Token-bucket rate limiter. Each (policy, key) pair has its own bucket holding
+ * up to {@link RateLimitPolicy#capacity()} permits, refilled evenly over
+ * {@link RateLimitPolicy#window()}.
+ *
+ * Implementations are selected with app.rate-limit.store: {@code memory}
+ * (default, per instance) or {@code jdbc} (shared through PostgreSQL).
+ */
+public interface RateLimiter {
+
+    /**
+     * Takes one permit from the bucket for {@code key}.
+     *
+     * @return false if the bucket is empty and the caller should be rejected
+     */
+    boolean tryAcquire(RateLimitPolicy policy, String key);
+}
@@ -0,0 +1,97 @@
+package com.lunfit.authservice.security;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy hitters: tracks the approximately most frequent keys using
+ * a fixed number of slots. When a new key arrives and all slots are taken, it
+ * replaces the key with the smallest count and inherits that count as error.
+ */
+public class SpaceSavingTopK {
+
+    private final int capacity;
+    private final Map<String, Slot> slots;
+
+    public SpaceSavingTopK(int capacity) {
+        this.capacity = capacity;
+        this.slots = new HashMap<>(capacity * 2);
+    }
+
+    public synchronized void offer(String key) {
+        Slot slot = slots.get(key);
+        if (slot != null) {
+            slot.count++;
+            return;
+        }
+        if (slots.size() < capacity) {
+            slots.put(key, new Slot(key, 1, 0));
+            return;
+        }
+
+        Slot smallest = null;
+        for (Slot candidate : slots.values()) {
+            if (smallest == null || candidate.count < smallest.count) {
+                smallest = candidate;
+            }
+        }
+        slots.remove(smallest.key);
+        slots.put(key, new Slot(key, smallest.count + 1, smallest.count));
+    }
+
+    /**
+     * Halves every count, dropping keys that reach zero.
+     */
+    public synchronized void decay() {
+        Iterator<Slot> it = slots.values().iterator();
+        while (it.hasNext()) {
+            Slot slot = it.next();
+            slot.count >>>= 1;
+            slot.error >>>= 1;
+            if (slot.count == 0) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * The count {@code key} is certain to have reached: {@code count - error}
+     * while it is tracked, 0 otherwise.
+     */
+    public synchronized long guaranteedCount(String key) {
+        Slot slot = slots.get(key);
+        return slot == null ? 0 : slot.count - slot.error;
+    }
+
+    public synchronized List<Entry> top(int limit) {
+        List<Entry> entries = new ArrayList<>(slots.size());
+        for (Slot slot : slots.values()) {
+            entries.add(new Entry(slot.key, slot.count, slot.error));
+        }
+        entries.sort(Comparator.comparingLong(Entry::count).reversed());
+        return entries.size() > limit ? entries.subList(0, limit) : entries;
+    }
+
+    /**
+     * A tracked key. The true count lies between {@code count - error} and {@code count}.
+     */
+    public record Entry(String key, long count, long error) {
+    }
+
+    private static final class Slot {
+
+        private final String key;
+        private long count;
+        private long error;
+
+        private Slot(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
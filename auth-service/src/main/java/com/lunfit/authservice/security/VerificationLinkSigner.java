@@ -0,0 +1,117 @@
+package com.lunfit.authservice.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Stateless email verification tokens: {@code v1.<payload>.<mac>}.
+ *
+ * The payload is user id, expiry (epoch seconds) and the user's verification
+ * nonce, base64url-encoded. The MAC is HMAC-SHA256 over the prefix and payload,
+ * truncated to 128 bits. Single use is enforced by the nonce stored on the
+ * user, which changes when the account is verified or a new link is issued.
+ */
+@Slf4j
+@Component
+public class VerificationLinkSigner {
+
+    public static final String PREFIX = "v1.";
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 16;
+    private static final int PAYLOAD_LENGTH = Long.BYTES + Long.BYTES + Integer.BYTES;
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder BASE64_URL_DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final CryptoPool<Mac> macs;
+
+    public VerificationLinkSigner(@Value("${app.verification-links.secret:}") String secret) {
+        this.key = StringUtils.hasText(secret)
+                ? new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM)
+                : null;
+        this.macs = key != null ? new CryptoPool<>(CryptoPool.defaultCapacity(), this::newMac) : null;
+    }
+
+    public boolean isConfigured() {
+        return key != null;
+    }
+
+    public static boolean isSigned(String token) {
+        return token.startsWith(PREFIX);
+    }
+
+    public String sign(long userId, long expiresAtEpochSecond, int nonce) {
+        ByteBuffer payload = ByteBuffer.allocate(PAYLOAD_LENGTH)
+                .putLong(userId)
+                .putLong(expiresAtEpochSecond)
+                .putInt(nonce);
+        String signingInput = PREFIX + BASE64_URL.encodeToString(payload.array());
+        return signingInput + '.' + BASE64_URL.encodeToString(mac(signingInput));
+    }
+
+    /**
+     * Checks the MAC and decodes the payload. Expiry is not checked here.
+     *
+     * @return empty if the token is malformed or its MAC does not match
+     */
+    public Optional<Payload> verify(String token) {
+        int separator = token.lastIndexOf('.');
+        if (key == null || !isSigned(token) || separator <= PREFIX.length()) {
+            return Optional.empty();
+        }
+        try {
+            String signingInput = token.substring(0, separator);
+            byte[] presentedMac = BASE64_URL_DECODER.decode(token.substring(separator + 1));
+            if (!MessageDigest.isEqual(mac(signingInput), presentedMac)) {
+                return Optional.empty();
+            }
+
+            byte[] payloadBytes = BASE64_URL_DECODER.decode(signingInput.substring(PREFIX.length()));
+            if (payloadBytes.length != PAYLOAD_LENGTH) {
+                return Optional.empty();
+            }
+            ByteBuffer payload = ByteBuffer.wrap(payloadBytes);
+            return Optional.of(new Payload(payload.getLong(), payload.getLong(), payload.getInt()));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] mac(String signingInput) {
+        if (key == null) {
+            throw new IllegalStateException("app.verification-links.secret is not configured");
+        }
+        Mac mac = macs.borrow();
+        try {
+            return Arrays.copyOf(mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII)), MAC_LENGTH);
+        } finally {
+            macs.release(mac);
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize " + MAC_ALGORITHM, e);
+        }
+    }
+
+    public record Payload(long userId, long expiresAtEpochSecond, int nonce) {
+    }
+}
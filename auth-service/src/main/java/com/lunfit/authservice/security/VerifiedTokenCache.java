@@ -0,0 +1,115 @@
+package com.lunfit.authservice.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.lunfit.authservice.service.JwtService;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Remembers access tokens whose signature has already been verified, so repeat
+ * requests with the same token skip the signature check.
+ *
+ * Entries are keyed by the SHA-256 digest of the token rather than the token
+ * itself, are bounded in number, and expire no later than the token's own exp.
+ */
+@Slf4j
+@Component
+public class VerifiedTokenCache {
+
+    private static final CryptoPool<MessageDigest> SHA_256 = new CryptoPool<>(CryptoPool.defaultCapacity(), () -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final JwtService jwtService;
+    private final Cache<String, CachedToken> cache;
+
+    public VerifiedTokenCache(
+            JwtService jwtService,
+            MeterRegistry meterRegistry,
+            @Value("${app.security.token-cache.max-size:10000}") long maxSize) {
+        this.jwtService = jwtService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "verified-tokens");
+    }
+
+    /**
+     * Resolves the principal for an access token, verifying the signature only
+     * when the token has not been seen before.
+     */
+    public Optional<AuthenticatedUser> authenticate(String token) {
+        String key = digest(token);
+
+        CachedToken cached = cache.getIfPresent(key);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            return Optional.of(cached.user());
+        }
+
+        JwtService.ParsedToken parsed;
+        try {
+            parsed = jwtService.parse(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Rejected bearer token: {}", e.getMessage());
+            return Optional.empty();
+        }
+
+        if (parsed.isRefreshToken() || parsed.userId() == null) {
+            return Optional.empty();
+        }
+
+        AuthenticatedUser user = new AuthenticatedUser(parsed.userId(), parsed.subject(), parsed.status());
+        cache.put(key, new CachedToken(user, parsed.expiresAt()));
+        return Optional.of(user);
+    }
+
+    private static String digest(String token) {
+        MessageDigest sha256 = SHA_256.borrow();
+        try {
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } finally {
+            SHA_256.release(sha256);
+        }
+    }
+
+    private record CachedToken(AuthenticatedUser user, Instant expiresAt) {
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, CachedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedToken value, long currentTime) {
+            long remainingMillis = value.expiresAt().toEpochMilli() - System.currentTimeMillis();
+            return Math.max(0L, remainingMillis) * 1_000_000L;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
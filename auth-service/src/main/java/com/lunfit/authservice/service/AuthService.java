@@ -2,6 +2,7 @@ package com.lunfit.authservice.service;
 
 import com.lunfit.authservice.dto.LoginRequest;
 import com.lunfit.authservice.dto.LoginResponse;
+import com.lunfit.authservice.dto.RefreshTokenRequest;
 import com.lunfit.authservice.dto.RegisterRequest;
 import com.lunfit.authservice.dto.RegisterResponse;
 import com.lunfit.authservice.dto.ResendVerificationRequest;
@@ -14,9 +15,10 @@ public interface AuthService {
      * Register a new user account
      *
      * @param request Registration request containing email and password
+     * @param clientIp Address of the caller, used for rate limiting
      * @return Registration response with verification email status
      */
-    RegisterResponse register(RegisterRequest request);
+    RegisterResponse register(RegisterRequest request, String clientIp);
 
     /**
      * Verify user's email address using verification token
@@ -30,15 +32,33 @@ public interface AuthService {
      * Resend verification email to user
      *
      * @param request Request containing user's email
+     * @param clientIp Address of the caller, used for rate limiting
      * @return Response with resend status
      */
-    ResendVerificationResponse resendVerificationEmail(ResendVerificationRequest request);
+    ResendVerificationResponse resendVerificationEmail(ResendVerificationRequest request, String clientIp);
 
     /**
      * Authenticate user and generate access and refresh tokens
      *
      * @param request Login request containing email and password
+     * @param clientIp Address of the caller, used for rate limiting
      * @return Login response with JWT tokens
      */
-    LoginResponse login(LoginRequest request);
+    LoginResponse login(LoginRequest request, String clientIp);
+
+    /**
+     * Exchange a refresh token for a new access token. The refresh token is
+     * rotated on every use; presenting a rotated-out token revokes the session.
+     *
+     * @param request Request containing the current refresh token
+     * @return Login response with a new access token and a new refresh token
+     */
+    LoginResponse refresh(RefreshTokenRequest request);
+
+    /**
+     * End the session that owns the given refresh token
+     *
+     * @param request Request containing the refresh token of the session to end
+     */
+    void logout(RefreshTokenRequest request);
 }
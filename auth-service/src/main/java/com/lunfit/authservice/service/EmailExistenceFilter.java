@@ -0,0 +1,266 @@
+package com.lunfit.authservice.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory Bloom filter of registered (normalized) emails, used to answer
+ * "definitely not registered" for logins without a database round trip.
+ *
+ * The filter is built by streaming the users table once the application is ready,
+ * and rebuilt periodically and after account cleanup to shed deleted emails.
+ * Emails registered on this instance are added when their transaction commits,
+ * and those registered on other instances are picked up by a short incremental
+ * sync on created_at. Until the first build completes, every email "might exist".
+ */
+@Slf4j
+@Component
+public class EmailExistenceFilter {
+
+    private static final String COUNT_USERS = "SELECT count(*) FROM users";
+    private static final String SELECT_EMAILS = "SELECT email FROM users";
+    private static final String SELECT_EMAILS_SINCE = "SELECT email FROM users WHERE created_at >= ?";
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final boolean enabled;
+    private final double falsePositiveRate;
+    private final double headroom;
+    private final long syncOverlapMs;
+
+    private volatile Bits current;
+    private volatile Bits building;
+    private volatile LocalDateTime syncedUpTo;
+
+    public EmailExistenceFilter(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${app.email-filter.enabled:true}") boolean enabled,
+            @Value("${app.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+            @Value("${app.email-filter.headroom:1.5}") double headroom,
+            @Value("${app.email-filter.sync-overlap-ms:60000}") long syncOverlapMs,
+            @Value("${app.email-filter.fetch-size:5000}") int fetchSize) {
+        this.streamingJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+        this.falsePositiveRate = falsePositiveRate;
+        this.headroom = headroom;
+        this.syncOverlapMs = syncOverlapMs;
+
+        Gauge.builder("auth.email.filter.memory", this, f -> f.current != null ? f.current.sizeInBytes() : 0)
+                .description("Memory used by the email existence filter")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("auth.email.filter.entries", this, f -> f.current != null ? f.current.entries() : 0)
+                .description("Emails added to the email existence filter since it was built")
+                .register(meterRegistry);
+        Gauge.builder("auth.email.filter.false-positive-rate", this,
+                        f -> f.current != null ? f.current.estimatedFalsePositiveRate() : 1.0)
+                .description("Estimated false-positive rate of the email existence filter, from its fill ratio")
+                .register(meterRegistry);
+    }
+
+    /**
+     * False means the email is certainly not registered; true means it might be.
+     */
+    public boolean mightContain(String email) {
+        Bits bits = current;
+        return bits == null || bits.mightContain(email);
+    }
+
+    /**
+     * Adds an email once the surrounding transaction commits, so rolled-back
+     * registrations are not added and a concurrent rebuild cannot miss it.
+     */
+    public void addAfterCommit(String email) {
+        afterCommit(() -> add(email));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void add(String email) {
+        Bits bits = current;
+        if (bits != null) {
+            bits.add(email);
+        }
+        Bits next = building;
+        if (next != null) {
+            next.add(email);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds the filter from the users table, sized for the current user count.
+     */
+    @Scheduled(fixedDelayString = "${app.email-filter.rebuild-interval-ms:21600000}",
+            initialDelayString = "${app.email-filter.rebuild-interval-ms:21600000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            long start = System.nanoTime();
+            long users = streamingJdbcTemplate.queryForObject(COUNT_USERS, Long.class);
+            Bits next = new Bits((long) Math.max(users * headroom, 10_000), falsePositiveRate);
+
+            // Published before the scan starts, so commits during the scan land in both filters
+            building = next;
+            LocalDateTime scanStartedAt = LocalDateTime.now();
+            readOnlyTransaction.executeWithoutResult(status ->
+                    streamingJdbcTemplate.query(SELECT_EMAILS, rs -> {
+                        next.add(rs.getString(1));
+                    }));
+
+            current = next;
+            syncedUpTo = scanStartedAt;
+            log.info("Email existence filter built with {} emails ({} KB) in {} ms",
+                    next.entries(), next.sizeInBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+        } catch (DataAccessException e) {
+            log.error("Failed to build the email existence filter; keeping the previous one", e);
+        } finally {
+            building = null;
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Adds emails registered on other instances since the last sync. The window
+     * overlaps the previous one to cover transactions that committed late.
+     */
+    @Scheduled(fixedDelayString = "${app.email-filter.sync-interval-ms:5000}")
+    public void syncRecent() {
+        Bits bits = current;
+        if (bits == null || !syncLock.tryLock()) {
+            return;
+        }
+        try {
+            LocalDateTime syncStartedAt = LocalDateTime.now();
+            LocalDateTime since = syncedUpTo.minusNanos(syncOverlapMs * 1_000_000);
+            streamingJdbcTemplate.query(SELECT_EMAILS_SINCE, rs -> {
+                bits.add(rs.getString(1));
+            }, Timestamp.valueOf(since));
+            syncedUpTo = syncStartedAt;
+        } catch (DataAccessException e) {
+            log.warn("Email existence filter sync failed: {}", e.getMessage());
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Lock-free Bloom filter over strings using double hashing of a 64-bit hash.
+     */
+    static final class Bits {
+
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLong setBits = new AtomicLong();
+        private final AtomicLong entries = new AtomicLong();
+
+        Bits(long expectedEntries, double falsePositiveRate) {
+            long bits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) Math.min((bits + 63) / 64, Integer.MAX_VALUE - 8));
+            this.bitCount = words.length() * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedEntries * Math.log(2)));
+        }
+
+        void add(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long value;
+                do {
+                    value = words.get(word);
+                    if ((value & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(word, value, value | mask));
+                if ((value & mask) == 0) {
+                    setBits.incrementAndGet();
+                }
+            }
+            entries.incrementAndGet();
+        }
+
+        boolean mightContain(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long sizeInBytes() {
+            return words.length() * 8L;
+        }
+
+        long entries() {
+            return entries.get();
+        }
+
+        double estimatedFalsePositiveRate() {
+            return Math.pow((double) setBits.get() / bitCount, hashCount);
+        }
+
+        private static long hash(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                hash ^= key.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
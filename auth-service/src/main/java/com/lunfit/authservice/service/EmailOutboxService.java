@@ -0,0 +1,121 @@
+package com.lunfit.authservice.service;
+
+import com.lunfit.authservice.entity.EmailOutboxMessage;
+import com.lunfit.authservice.entity.User;
+import com.lunfit.authservice.repository.EmailOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Transactional outbox for outgoing email. Messages are written in the same
+ * transaction as the change that caused them and delivered later by
+ * {@link com.lunfit.authservice.scheduler.EmailOutboxDispatcher}, so nothing is
+ * sent for rolled-back work and nothing queued is lost on restart.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+
+    @Value("${app.email.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.email.outbox.retry-base-delay-ms:30000}")
+    private long retryBaseDelayMs;
+
+    @Value("${app.email.outbox.retry-max-delay-ms:3600000}")
+    private long retryMaxDelayMs;
+
+    /**
+     * Queues a verification email. Must run inside the caller's transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueVerificationEmail(User user, String token) {
+        emailOutboxRepository.save(EmailOutboxMessage.builder()
+                .userId(user.getId())
+                .recipient(user.getEmail())
+                .emailType(EmailOutboxMessage.EmailType.VERIFICATION)
+                .payload(token)
+                .build());
+    }
+
+    /**
+     * Claims a batch of due messages and leases them for {@code lease}. Older
+     * queued verification emails for the same user are dropped first, as only
+     * the newest token is still valid.
+     */
+    @Transactional
+    public List<EmailOutboxMessage> claim(int batchSize, Duration lease) {
+        int superseded = emailOutboxRepository.supersedeOlderPending(EmailOutboxMessage.EmailType.VERIFICATION.name());
+        if (superseded > 0) {
+            log.debug("Superseded {} queued verification emails", superseded);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return emailOutboxRepository.claimDue(now, now.plus(lease), batchSize);
+    }
+
+    @Transactional
+    public void markSent(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            emailOutboxRepository.markSent(ids, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Schedules another attempt with exponential backoff, or gives up once the
+     * message has used all its attempts.
+     *
+     * @return whether the message was marked FAILED
+     */
+    @Transactional
+    public boolean markAttemptFailed(EmailOutboxMessage message, Throwable error) {
+        String reason = describe(error);
+        if (message.getAttempts() >= maxAttempts) {
+            emailOutboxRepository.markFailed(message.getId(), reason);
+            log.error("Giving up on {} email {} to {} after {} attempts: {}",
+                    message.getEmailType(), message.getId(), message.getRecipient(), message.getAttempts(), reason);
+            return true;
+        }
+
+        long delayMs = retryBaseDelayMs << Math.min(message.getAttempts() - 1, 20);
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plusNanos(
+                Duration.ofMillis(Math.min(delayMs, retryMaxDelayMs)).toNanos());
+        emailOutboxRepository.scheduleRetry(message.getId(), nextAttemptAt, reason);
+        log.warn("Email {} to {} failed (attempt {}), retrying at {}: {}",
+                message.getId(), message.getRecipient(), message.getAttempts(), nextAttemptAt, reason);
+        return false;
+    }
+
+    public Optional<LocalDateTime> oldestPendingCreatedAt() {
+        return emailOutboxRepository.findOldestCreatedAt(EmailOutboxMessage.Status.PENDING);
+    }
+
+    @Transactional
+    public int purgeSent(LocalDateTime before, int batchSize) {
+        return emailOutboxRepository.deleteSentBefore(before, batchSize);
+    }
+
+    @Transactional
+    public int purgeUndelivered(LocalDateTime before, int batchSize) {
+        return emailOutboxRepository.deleteUndeliveredBefore(before, batchSize);
+    }
+
+    private static String describe(Throwable error) {
+        String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+}
@@ -1,28 +1,40 @@
 package com.lunfit.authservice.service;
 
-import com.lunfit.authservice.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.MailException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.thymeleaf.context.Context;
-import org.thymeleaf.spring6.SpringTemplateEngine;
 
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Renders and sends email synchronously. Callers queue mail through
+ * {@link EmailOutboxService}; the outbox dispatcher is the only sender.
+ *
+ * In the default {@code pooled} sending mode messages go over long-lived
+ * connections from {@link SmtpTransportPool}; {@code per-message} opens a new
+ * SMTP connection for every email through {@link JavaMailSender}.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class EmailService {
 
+    public enum SendingMode {
+        PER_MESSAGE, POOLED
+    }
+
     private final JavaMailSender mailSender;
-    private final SpringTemplateEngine templateEngine;
+    private final EmailTemplateRenderer templateRenderer;
+    private final SmtpTransportPool transportPool;
+    private final SendingMode sendingMode;
+    private final Timer sendTimer;
 
     @Value("${spring.mail.from}")
     private String fromEmail;
@@ -30,32 +42,59 @@ public class EmailService {
     @Value("${app.base-url}")
     private String baseUrl;
 
-    @Async("emailTaskExecutor")
-    public CompletableFuture<Void> sendVerificationEmail(User user, String token) {
-        log.info("sendEmailAsync");
-        try {
-            String verificationUrl = baseUrl + "/api/v1/auth/verify?token=" + token;
+    public EmailService(
+            JavaMailSender mailSender,
+            EmailTemplateRenderer templateRenderer,
+            SmtpTransportPool transportPool,
+            MeterRegistry meterRegistry,
+            @Value("${app.email.sending-mode:pooled}") SendingMode sendingMode) {
+        this.mailSender = mailSender;
+        this.templateRenderer = templateRenderer;
+        this.transportPool = transportPool;
+        this.sendingMode = sendingMode;
+        this.sendTimer = Timer.builder("auth.email.send")
+                .description("Time spent handing a message to the mail server")
+                .tag("mode", sendingMode.name().toLowerCase().replace('_', '-'))
+                .register(meterRegistry);
+        log.info("Email sending mode: {}", sendingMode);
+    }
 
-            Context context = new Context();
-            context.setVariable("verificationUrl", verificationUrl);
+    /**
+     * @throws org.springframework.mail.MailException if the message could not be built or sent
+     */
+    public void sendVerificationEmail(String recipient, String token) {
+        String verificationUrl = baseUrl + "/api/v1/auth/verify?token=" + token;
 
-            String htmlContent = templateEngine.process("verification-email", context);
+        String htmlContent = templateRenderer.renderVerificationEmail(verificationUrl);
 
-            MimeMessage message = mailSender.createMimeMessage();
+        MimeMessage message = mailSender.createMimeMessage();
+        try {
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
             helper.setFrom(fromEmail);
-            helper.setTo(user.getEmail());
+            helper.setTo(recipient);
             helper.setSubject("Verify Your Email - LunFit");
             helper.setText(htmlContent, true);
+        } catch (MessagingException e) {
+            throw new MailPreparationException("Failed to build verification email", e);
+        }
 
-            mailSender.send(message);
-            log.info("Verification email sent to: {}", user.getEmail());
+        send(message);
+        log.info("Verification email sent to: {}", recipient);
+    }
 
-            return CompletableFuture.completedFuture(null);
-        } catch (MailException | MessagingException e) {
-            log.error("Failed to send verification email to: {}", user.getEmail(), e);
-            return CompletableFuture.failedFuture(e);
+    private void send(MimeMessage message) {
+        long start = System.nanoTime();
+        try {
+            if (sendingMode == SendingMode.POOLED) {
+                transportPool.send(message);
+            } else {
+                mailSender.send(message);
+            }
+        } catch (MessagingException e) {
+            throw new MailSendException("Failed to send email", e);
+        } finally {
+            sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 }
@@ -0,0 +1,47 @@
+package com.lunfit.authservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+/**
+ * Renders email bodies. The verification email is precompiled at startup (see
+ * {@link PrecompiledTemplate}); if precompilation is disabled or the template
+ * cannot be precompiled, it goes through the full Thymeleaf engine.
+ */
+@Slf4j
+@Component
+public class EmailTemplateRenderer {
+
+    static final String VERIFICATION_TEMPLATE = "verification-email";
+    static final String VERIFICATION_URL_VARIABLE = "verificationUrl";
+
+    private final SpringTemplateEngine templateEngine;
+    private final PrecompiledTemplate verificationTemplate;
+
+    public EmailTemplateRenderer(
+            SpringTemplateEngine templateEngine,
+            @Value("${app.email.precompiled-templates:true}") boolean precompile) {
+        this.templateEngine = templateEngine;
+        this.verificationTemplate = precompile
+                ? PrecompiledTemplate.compile(templateEngine, VERIFICATION_TEMPLATE, VERIFICATION_URL_VARIABLE)
+                : null;
+
+        if (verificationTemplate != null) {
+            log.info("Precompiled template {} with {} slots", VERIFICATION_TEMPLATE, verificationTemplate.slotCount());
+        } else if (precompile) {
+            log.warn("Template {} cannot be precompiled, rendering it with Thymeleaf", VERIFICATION_TEMPLATE);
+        }
+    }
+
+    public String renderVerificationEmail(String verificationUrl) {
+        if (verificationTemplate != null) {
+            return verificationTemplate.render(verificationUrl);
+        }
+        Context context = new Context();
+        context.setVariable(VERIFICATION_URL_VARIABLE, verificationUrl);
+        return templateEngine.process(VERIFICATION_TEMPLATE, context);
+    }
+}
@@ -1,93 +1,233 @@
 package com.lunfit.authservice.service;
 
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
 import com.lunfit.authservice.entity.User;
+import com.lunfit.authservice.security.CryptoPool;
+import com.lunfit.authservice.security.JwtKeyRing;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
-
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Issues and verifies ES256-signed JWTs carrying a kid header.
+ *
+ * Keys come from {@link JwtKeyRing}; downstream services verify locally against
+ * the published JWK Set. The parser is built once at startup and the JOSE header
+ * is pre-encoded by the key ring. Tokens are generated on a specialized path that writes the fixed
+ * claim set directly and signs with a pooled {@link Signature}, and
+ * verification goes through {@link #parse(String)} so a token is only checked
+ * once per call. Tokens signed with the legacy HMAC secret are accepted only
+ * while jwt.accept-legacy-hmac is set (off by default), so sessions can survive
+ * the switch; startup fails if it is set without a real secret.
+ */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class JwtService {
 
-    @Value("${jwt.secret}")
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    // Raw R||S output, which is what JWS expects, rather than DER
+    private static final String SIGNATURE_ALGORITHM = "SHA256withECDSAinP1363Format";
+
+    // Example secrets shipped in earlier configs and docs; anyone could forge HS256 tokens with them
+    private static final Set<String> PUBLISHED_SECRETS = Set.of(
+            "YourSuperSecretKeyThatShouldBeAtLeast256BitsLongForHS256AlgorithmSecurity",
+            "your-super-secret-jwt-key-at-least-256-bits-long-change-this-in-production");
+
+    private final JwtKeyRing keyRing;
+
+    @Value("${jwt.secret:}")
     private String secret;
 
+    @Value("${jwt.accept-legacy-hmac:false}")
+    private boolean acceptLegacyHmac;
+
     @Value("${jwt.access-token-expiry:3600000}")
     private long accessTokenExpiry;
 
     @Value("${jwt.refresh-token-expiry:2592000000}")
     private long refreshTokenExpiry;
 
-    public String generateAccessToken(User user) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("userId", user.getId());
-        claims.put("email", user.getEmail());
-        claims.put("status", user.getStatus().name());
+    private SecretKey legacyHmacKey;
+    private JwtParser parser;
+    private CryptoPool<Signature> signatures;
+
+    @PostConstruct
+    void init() {
+        if (acceptLegacyHmac) {
+            if (!StringUtils.hasText(secret) || PUBLISHED_SECRETS.contains(secret)) {
+                throw new IllegalStateException("jwt.accept-legacy-hmac is enabled but jwt.secret is missing "
+                        + "or a published example value; set JWT_SECRET to the secret legacy tokens were "
+                        + "signed with, or disable legacy HMAC verification");
+            }
+            legacyHmacKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        }
+        parser = Jwts.parser()
+                .keyLocator(this::locateVerificationKey)
+                .build();
+
+        signatures = new CryptoPool<>(CryptoPool.defaultCapacity(), JwtService::newSignature);
+
+        log.info("JWT signing initialized with {} (legacy HMAC verification {})",
+                JwtKeyRing.ALGORITHM, legacyHmacKey != null ? "enabled" : "disabled");
+    }
 
-        return createToken(claims, user.getEmail(), accessTokenExpiry);
+    public String generateAccessToken(User user) {
+        return generateAccessToken(user.getId(), user.getEmail(), user.getStatus());
     }
 
-    public String generateRefreshToken(User user) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("userId", user.getId());
-        claims.put("type", "refresh");
+    public String generateAccessToken(Long userId, String email, User.UserStatus status) {
+        StringBuilder claims = new StringBuilder(160);
+        claims.append("{\"userId\":").append(userId);
+        appendStringClaim(claims, "email", email);
+        appendStringClaim(claims, "status", status.name());
+
+        return createToken(claims, email, accessTokenExpiry);
+    }
 
-        return createToken(claims, user.getEmail(), refreshTokenExpiry);
+    /**
+     * Completes the payload with the registered claims and signs it as a compact JWS.
+     */
+    private String createToken(StringBuilder claims, String subject, long expiry) {
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        appendStringClaim(claims, "sub", subject);
+        claims.append(",\"iat\":").append(nowSeconds)
+                .append(",\"exp\":").append(nowSeconds + expiry / 1000)
+                .append('}');
+
+        JwtKeyRing.ActiveKey key = keyRing.activeKey();
+        String signingInput = key.encodedHeader() + '.'
+                + BASE64_URL.encodeToString(claims.toString().getBytes(StandardCharsets.UTF_8));
+
+        Signature signer = signatures.borrow();
+        try {
+            signer.initSign(key.privateKey());
+            signer.update(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + '.' + BASE64_URL.encodeToString(signer.sign());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to sign JWT", e);
+        } finally {
+            signatures.release(signer);
+        }
     }
 
-    private String createToken(Map<String, Object> claims, String subject, long expiry) {
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + expiry);
+    private Key locateVerificationKey(Header header) {
+        String algorithm = header.getAlgorithm();
+        if (JwtKeyRing.ALGORITHM.equals(algorithm) && header instanceof ProtectedHeader protectedHeader) {
+            PublicKey key = keyRing.verificationKey(protectedHeader.getKeyId());
+            if (key != null) {
+                return key;
+            }
+        } else if (legacyHmacKey != null && algorithm != null && algorithm.startsWith("HS")) {
+            return legacyHmacKey;
+        }
+        throw new UnsupportedJwtException("No verification key for token");
+    }
 
-        return Jwts.builder()
-                .claims(claims)
-                .subject(subject)
-                .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
+    /**
+     * Verifies the signature and expiry of a token exactly once.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public ParsedToken parse(String token) {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        return new ParsedToken(
+                claims.getSubject(),
+                claims.get("userId", Long.class),
+                claims.get("status", String.class),
+                claims.get("type", String.class),
+                claims.getExpiration().toInstant(),
+                claims
+        );
     }
 
     public Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parse(token).claims();
     }
 
     public String extractEmail(String token) {
-        return extractAllClaims(token).getSubject();
+        return parse(token).subject();
     }
 
     public Long extractUserId(String token) {
-        return extractAllClaims(token).get("userId", Long.class);
+        return parse(token).userId();
     }
 
     public boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
+        return parse(token).isExpired();
     }
 
     public boolean validateToken(String token, String email) {
-        final String tokenEmail = extractEmail(token);
-        return (tokenEmail.equals(email) && !isTokenExpired(token));
-    }
-
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        try {
+            ParsedToken parsed = parse(token);
+            return parsed.subject().equals(email) && !parsed.isExpired();
+        } catch (JwtException e) {
+            return false;
+        }
     }
 
     public long getAccessTokenExpiry() {
         return accessTokenExpiry;
     }
+
+    public long getRefreshTokenExpiry() {
+        return refreshTokenExpiry;
+    }
+
+    private static Signature newSignature() {
+        try {
+            return Signature.getInstance(SIGNATURE_ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize " + SIGNATURE_ALGORITHM, e);
+        }
+    }
+
+    private static void appendStringClaim(StringBuilder claims, String name, String value) {
+        claims.append(",\"").append(name).append("\":\"");
+        JsonStringEncoder.getInstance().quoteAsString(value, claims);
+        claims.append('"');
+    }
+
+    /**
+     * Verified view of a token. Everything callers need is read from the claims
+     * once, at verification time.
+     */
+    public record ParsedToken(
+            String subject,
+            Long userId,
+            String status,
+            String type,
+            Instant expiresAt,
+            Claims claims) {
+
+        public boolean isExpired() {
+            return expiresAt.isBefore(Instant.now());
+        }
+
+        public boolean isRefreshToken() {
+            return "refresh".equals(type);
+        }
+    }
 }
@@ -0,0 +1,171 @@
+package com.lunfit.authservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for login bookkeeping (last_login_at, device info).
+ *
+ * Updates are coalesced per user in memory and flushed periodically as batched
+ * UPDATE statements, so successful logins do not take row locks on users and
+ * auth_credentials. The buffer is bounded: when full, updates for users not
+ * already pending are dropped and counted. Pending updates are flushed on shutdown.
+ */
+@Slf4j
+@Component
+public class LoginActivityBuffer {
+
+    private static final String UPDATE_LAST_LOGIN =
+            "UPDATE users SET last_login_at = ? WHERE id = ? AND (last_login_at IS NULL OR last_login_at < ?)";
+    private static final String UPDATE_DEVICE_INFO =
+            "UPDATE auth_credentials SET device_info = ?, updated_at = ? WHERE user_id = ?";
+
+    private final ConcurrentHashMap<Long, PendingLogin> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxPending;
+    private final int batchSize;
+
+    private final Counter droppedCounter;
+    private final Counter flushedCounter;
+    private final Counter failedCounter;
+    private final Timer flushTimer;
+
+    public LoginActivityBuffer(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.login-activity.max-pending:50000}") int maxPending,
+            @Value("${app.login-activity.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+
+        this.droppedCounter = Counter.builder("auth.login.activity.dropped")
+                .description("Login bookkeeping updates dropped because the buffer was full or a flush failed")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("auth.login.activity.flushed")
+                .description("Coalesced login bookkeeping updates written to the database")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("auth.login.activity.flush.failures")
+                .description("Flushes that failed")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("auth.login.activity.flush")
+                .description("Time spent flushing login bookkeeping")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.activity.pending", pending, Map::size)
+                .description("Users with login bookkeeping waiting to be flushed")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.activity.lag", this, LoginActivityBuffer::oldestPendingSeconds)
+                .description("Age in seconds of the oldest unflushed login update")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a successful login. {@code deviceInfo} is only written when non-null.
+     */
+    public void record(Long userId, LocalDateTime loginAt, String deviceInfo) {
+        if (pending.size() >= maxPending && !pending.containsKey(userId)) {
+            droppedCounter.increment();
+            return;
+        }
+        pending.merge(userId, new PendingLogin(loginAt, deviceInfo, System.nanoTime()), PendingLogin::merge);
+    }
+
+    @Scheduled(fixedDelayString = "${app.login-activity.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            flushTimer.record(this::drainAndWrite);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        log.info("Login activity buffer flushed on shutdown");
+    }
+
+    private void drainAndWrite() {
+        List<Object[]> lastLogins = new ArrayList<>();
+        List<Object[]> deviceInfos = new ArrayList<>();
+
+        for (Long userId : pending.keySet()) {
+            PendingLogin login = pending.remove(userId);
+            if (login == null) {
+                continue;
+            }
+            Timestamp loginAt = Timestamp.valueOf(login.loginAt());
+            lastLogins.add(new Object[]{loginAt, userId, loginAt});
+            if (login.deviceInfo() != null) {
+                deviceInfos.add(new Object[]{login.deviceInfo(), loginAt, userId});
+            }
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, lastLogins, batchSize,
+                    (ps, args) -> {
+                        ps.setTimestamp(1, (Timestamp) args[0]);
+                        ps.setLong(2, (Long) args[1]);
+                        ps.setTimestamp(3, (Timestamp) args[2]);
+                    });
+            if (!deviceInfos.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_DEVICE_INFO, deviceInfos, batchSize,
+                        (ps, args) -> {
+                            ps.setString(1, (String) args[0]);
+                            ps.setTimestamp(2, (Timestamp) args[1]);
+                            ps.setLong(3, (Long) args[2]);
+                        });
+            }
+            flushedCounter.increment(lastLogins.size());
+        } catch (DataAccessException e) {
+            // Bookkeeping is best effort; a failed batch is counted, not retried
+            failedCounter.increment();
+            droppedCounter.increment(lastLogins.size());
+            log.error("Failed to flush {} login bookkeeping updates", lastLogins.size(), e);
+        }
+    }
+
+    private double oldestPendingSeconds() {
+        long now = System.nanoTime();
+        long oldest = now;
+        for (PendingLogin login : pending.values()) {
+            oldest = Math.min(oldest, login.firstRecordedNanos());
+        }
+        return (now - oldest) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private record PendingLogin(LocalDateTime loginAt, String deviceInfo, long firstRecordedNanos) {
+
+        PendingLogin merge(PendingLogin newer) {
+            return new PendingLogin(
+                    newer.loginAt().isAfter(loginAt) ? newer.loginAt() : loginAt,
+                    newer.deviceInfo() != null ? newer.deviceInfo() : deviceInfo,
+                    Math.min(firstRecordedNanos, newer.firstRecordedNanos())
+            );
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.lunfit.authservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Where login time goes and how logins end.
+ *
+ * auth.login.phase{phase} times each step of a login; histogram buckets are set
+ * under management.metrics.distribution.slo.auth.login.phase. auth.login{outcome}
+ * counts attempts by result.
+ */
+@Component
+public class LoginMetrics {
+
+    public enum Phase {
+        /** user and credentials, fetched together (skipped when the email filter rules the email out) */
+        LOOKUP,
+        /** BCrypt match, including the decoy match for unknown emails */
+        PASSWORD_MATCH,
+        /** re-encoding a hash stored at an outdated cost */
+        REHASH,
+        /** signing the access token */
+        TOKEN_ISSUE,
+        /** creating or replacing the device session with its refresh token */
+        SESSION_PERSIST
+    }
+
+    public enum Outcome {
+        SUCCESS,
+        INVALID_CREDENTIALS,
+        UNKNOWN_EMAIL,
+        UNVERIFIED,
+        RATE_LIMITED,
+        BLOCKED
+    }
+
+    private final Map<Phase, Timer> phaseTimers = new EnumMap<>(Phase.class);
+    private final Map<Outcome, Counter> outcomeCounters = new EnumMap<>(Outcome.class);
+
+    public LoginMetrics(MeterRegistry meterRegistry) {
+        for (Phase phase : Phase.values()) {
+            phaseTimers.put(phase, Timer.builder("auth.login.phase")
+                    .description("Time spent in each phase of a login")
+                    .tag("phase", tagValue(phase))
+                    .register(meterRegistry));
+        }
+        for (Outcome outcome : Outcome.values()) {
+            outcomeCounters.put(outcome, Counter.builder("auth.login")
+                    .description("Login attempts by outcome")
+                    .tag("outcome", tagValue(outcome))
+                    .register(meterRegistry));
+        }
+    }
+
+    public <T> T time(Phase phase, Supplier<T> work) {
+        return phaseTimers.get(phase).record(work);
+    }
+
+    public void time(Phase phase, Runnable work) {
+        phaseTimers.get(phase).record(work);
+    }
+
+    public void outcome(Outcome outcome) {
+        outcomeCounters.get(outcome).increment();
+    }
+
+    private static String tagValue(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
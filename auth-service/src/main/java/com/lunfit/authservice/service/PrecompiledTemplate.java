@@ -0,0 +1,100 @@
+package com.lunfit.authservice.service;
+
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A Thymeleaf template whose output depends on a single variable, split once
+ * into static segments and substitution slots.
+ *
+ * The template is rendered through the engine with a sentinel value, and the
+ * output is cut wherever the sentinel appears. Rendering then only appends the
+ * segments and the HTML-escaped value into a presized builder.
+ * {@link #compile} checks the result against the engine with a value that needs
+ * escaping. It returns {@code null} when the template cannot be expressed this
+ * way, for example when it branches on the variable.
+ */
+public final class PrecompiledTemplate {
+
+    private static final String SENTINEL = "__precompiled_slot_7c1e9b__";
+    private static final String PROBE_VALUE = "https://probe.invalid/verify?token=a&b=<\"'>";
+
+    private final String[] segments;
+    private final int staticLength;
+
+    private PrecompiledTemplate(String[] segments) {
+        this.segments = segments;
+        int length = 0;
+        for (String segment : segments) {
+            length += segment.length();
+        }
+        this.staticLength = length;
+    }
+
+    public static PrecompiledTemplate compile(ITemplateEngine engine, String templateName, String variable) {
+        String rendered = engine.process(templateName, contextOf(variable, SENTINEL));
+
+        List<String> segments = new ArrayList<>();
+        int from = 0;
+        int slot;
+        while ((slot = rendered.indexOf(SENTINEL, from)) >= 0) {
+            segments.add(rendered.substring(from, slot));
+            from = slot + SENTINEL.length();
+        }
+        segments.add(rendered.substring(from));
+        if (segments.size() < 2) {
+            return null;
+        }
+
+        PrecompiledTemplate template = new PrecompiledTemplate(segments.toArray(String[]::new));
+        String expected = engine.process(templateName, contextOf(variable, PROBE_VALUE));
+        return expected.equals(template.render(PROBE_VALUE)) ? template : null;
+    }
+
+    public String render(String value) {
+        int slots = segments.length - 1;
+        StringBuilder out = new StringBuilder(staticLength + slots * (value.length() + 16));
+        out.append(segments[0]);
+        for (int i = 1; i < segments.length; i++) {
+            appendEscaped(out, value);
+            out.append(segments[i]);
+        }
+        return out.toString();
+    }
+
+    public int slotCount() {
+        return segments.length - 1;
+    }
+
+    /**
+     * Same escaping Thymeleaf applies to th:text and attribute values.
+     */
+    private static void appendEscaped(StringBuilder out, String value) {
+        int length = value.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            String replacement = switch (value.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (replacement != null) {
+                out.append(value, start, i).append(replacement);
+                start = i + 1;
+            }
+        }
+        out.append(value, start, length);
+    }
+
+    private static Context contextOf(String variable, String value) {
+        Context context = new Context();
+        context.setVariable(variable, value);
+        return context;
+    }
+}
@@ -0,0 +1,83 @@
+package com.lunfit.authservice.service;
+
+import com.lunfit.authservice.exception.RateLimitExceededException;
+import com.lunfit.authservice.security.RateLimitPolicy;
+import com.lunfit.authservice.security.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Rate limits for the public auth endpoints, keyed by client IP and, for resend,
+ * by email. Checks run first in each operation, before any database or BCrypt work.
+ */
+@Service
+public class RateLimitService {
+
+    private final RateLimiter rateLimiter;
+
+    private final RateLimitPolicy loginPerIp;
+    private final RateLimitPolicy registerPerIp;
+    private final RateLimitPolicy resendPerEmail;
+    private final RateLimitPolicy resendPerIp;
+    private final String resendLimitMessage;
+    private final Map<RateLimitPolicy, Counter> rejections;
+
+    public RateLimitService(
+            RateLimiter rateLimiter,
+            MeterRegistry meterRegistry,
+            @Value("${app.max-resend-attempts:5}") int maxResendAttempts,
+            @Value("${app.resend-window-hours:24}") int resendWindowHours,
+            @Value("${app.rate-limit.resend-per-ip:20}") int resendPerIp,
+            @Value("${app.rate-limit.login-per-ip-per-minute:30}") int loginPerIpPerMinute,
+            @Value("${app.rate-limit.register-per-ip-per-hour:20}") int registerPerIpPerHour) {
+        this.rateLimiter = rateLimiter;
+
+        Duration resendWindow = Duration.ofHours(resendWindowHours);
+        this.resendPerEmail = new RateLimitPolicy("resend-email", maxResendAttempts, resendWindow);
+        this.resendPerIp = new RateLimitPolicy("resend-ip", resendPerIp, resendWindow);
+        this.loginPerIp = new RateLimitPolicy("login-ip", loginPerIpPerMinute, Duration.ofMinutes(1));
+        this.registerPerIp = new RateLimitPolicy("register-ip", registerPerIpPerHour, Duration.ofHours(1));
+        this.resendLimitMessage = String.format(
+                "Maximum resend attempts (%d) exceeded. Please try again after %d hours.",
+                maxResendAttempts, resendWindowHours);
+
+        // Registered up front so a flood of rejections does not look meters up one by one
+        this.rejections = Map.of(
+                this.resendPerEmail, rejectionCounter(meterRegistry, this.resendPerEmail),
+                this.resendPerIp, rejectionCounter(meterRegistry, this.resendPerIp),
+                this.loginPerIp, rejectionCounter(meterRegistry, this.loginPerIp),
+                this.registerPerIp, rejectionCounter(meterRegistry, this.registerPerIp));
+    }
+
+    public void checkLogin(String clientIp) {
+        check(loginPerIp, clientIp, "Too many login attempts. Please try again later.");
+    }
+
+    public void checkRegister(String clientIp) {
+        check(registerPerIp, clientIp, "Too many registration attempts. Please try again later.");
+    }
+
+    public void checkResend(String email, String clientIp) {
+        check(resendPerIp, clientIp, resendLimitMessage);
+        check(resendPerEmail, email, resendLimitMessage);
+    }
+
+    private void check(RateLimitPolicy policy, String key, String message) {
+        if (key != null && !rateLimiter.tryAcquire(policy, key)) {
+            rejections.get(policy).increment();
+            throw new RateLimitExceededException(message);
+        }
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, RateLimitPolicy policy) {
+        return Counter.builder("auth.rate-limit.rejected")
+                .description("Requests rejected by a rate limit")
+                .tag("policy", policy.name())
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,133 @@
+package com.lunfit.authservice.service;
+
+import com.lunfit.authservice.entity.UserSession;
+import com.lunfit.authservice.exception.InvalidCredentialsException;
+import com.lunfit.authservice.repository.UserSessionRepository;
+import com.lunfit.authservice.repository.projection.SessionOwnerView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Refresh-token sessions, one per user and device. Every operation touches a
+ * single row through an index; only digests of refresh tokens are stored.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SessionService {
+
+    private static final String DEFAULT_DEVICE_ID = "default";
+
+    private final UserSessionRepository userSessionRepository;
+    private final TokenService tokenService;
+    private final JwtService jwtService;
+
+    @Value("${app.sessions.max-per-user:5}")
+    private int maxSessionsPerUser;
+
+    /**
+     * Opens (or replaces) the session for a device and returns the raw refresh token.
+     */
+    @Transactional
+    public String issue(Long userId, String deviceId, String deviceInfo) {
+        String refreshToken = tokenService.generateSecureToken();
+        LocalDateTime now = LocalDateTime.now();
+
+        userSessionRepository.upsert(
+                userId,
+                resolveDeviceId(deviceId, deviceInfo),
+                deviceInfo,
+                tokenService.hashToken(refreshToken),
+                now.plusSeconds(jwtService.getRefreshTokenExpiry() / 1000),
+                now
+        );
+        userSessionRepository.trimToLimit(userId, maxSessionsPerUser);
+
+        return refreshToken;
+    }
+
+    /**
+     * Looks up the session owning a refresh token. A token that is no longer current
+     * but was rotated out earlier has leaked, so its session is revoked.
+     */
+    @Transactional(noRollbackFor = InvalidCredentialsException.class) // keep reuse revocations
+    public SessionOwnerView findActiveSession(String refreshToken) {
+        String presentedHash = tokenService.hashToken(refreshToken);
+
+        SessionOwnerView session = userSessionRepository.findOwnerByRefreshToken(presentedHash)
+                .orElseThrow(() -> rejectUnknownRefreshToken(presentedHash));
+
+        if (session.expiresAt().isBefore(LocalDateTime.now())) {
+            throw new InvalidCredentialsException("Refresh token has expired. Please log in again.");
+        }
+        return session;
+    }
+
+    /**
+     * Replaces the refresh token of a session and returns the new raw token.
+     */
+    @Transactional
+    public String rotate(Long sessionId, String currentRefreshToken) {
+        String refreshToken = tokenService.generateSecureToken();
+        LocalDateTime now = LocalDateTime.now();
+
+        int rotated = userSessionRepository.rotate(
+                sessionId,
+                tokenService.hashToken(currentRefreshToken),
+                tokenService.hashToken(refreshToken),
+                now.plusSeconds(jwtService.getRefreshTokenExpiry() / 1000),
+                now
+        );
+        if (rotated == 0) {
+            throw new InvalidCredentialsException("Invalid refresh token");
+        }
+        return refreshToken;
+    }
+
+    @Transactional(readOnly = true)
+    public List<UserSession> listSessions(Long userId) {
+        return userSessionRepository.findByUserIdOrderByLastUsedAtDesc(userId);
+    }
+
+    @Transactional
+    public boolean revoke(Long userId, Long sessionId) {
+        return userSessionRepository.deleteByIdAndUserId(sessionId, userId) > 0;
+    }
+
+    @Transactional
+    public void revokeByRefreshToken(String refreshToken) {
+        userSessionRepository.deleteByRefreshToken(tokenService.hashToken(refreshToken));
+    }
+
+    @Transactional
+    public int pruneExpired(int batchSize) {
+        return userSessionRepository.deleteExpiredBatch(LocalDateTime.now(), batchSize);
+    }
+
+    private InvalidCredentialsException rejectUnknownRefreshToken(String presentedHash) {
+        userSessionRepository.findByPreviousRefreshToken(presentedHash).ifPresent(session -> {
+            userSessionRepository.deleteById(session.getId());
+            log.warn("Refresh token reuse detected; revoked session {} for user: {}",
+                    session.getId(), session.getUserId());
+        });
+        return new InvalidCredentialsException("Invalid refresh token");
+    }
+
+    private String resolveDeviceId(String deviceId, String deviceInfo) {
+        if (StringUtils.hasText(deviceId)) {
+            return deviceId.trim();
+        }
+        if (StringUtils.hasText(deviceInfo)) {
+            // Stable per user agent, so repeat logins from one device reuse its session
+            return "info-" + tokenService.hashToken(deviceInfo).substring(0, 16);
+        }
+        return DEFAULT_DEVICE_ID;
+    }
+}
@@ -0,0 +1,154 @@
+package com.lunfit.authservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Date;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of long-lived SMTP connections, so the connect, EHLO, STARTTLS and AUTH
+ * handshake is paid once per connection rather than once per message.
+ *
+ * Transports are opened from the session and credentials of the auto-configured
+ * {@link JavaMailSenderImpl}. A worker borrows a connection for one message and
+ * hands it back. Connections are retired after a number of messages or when
+ * they have been idle long enough that the server has probably dropped them.
+ * A reused connection that fails is replaced and the message is retried once.
+ */
+@Slf4j
+@Component
+public class SmtpTransportPool {
+
+    private final JavaMailSenderImpl mailSender;
+    private final BlockingQueue<PooledTransport> idle;
+    private final int maxMessagesPerConnection;
+    private final long maxIdleNanos;
+
+    private final Counter connectionsOpened;
+
+    public SmtpTransportPool(
+            JavaMailSenderImpl mailSender,
+            MeterRegistry meterRegistry,
+            @Value("${app.email.smtp-pool.max-idle-connections:5}") int maxIdleConnections,
+            @Value("${app.email.smtp-pool.max-messages-per-connection:100}") int maxMessagesPerConnection,
+            @Value("${app.email.smtp-pool.max-idle-ms:30000}") long maxIdleMs) {
+        this.mailSender = mailSender;
+        this.idle = new ArrayBlockingQueue<>(maxIdleConnections);
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.maxIdleNanos = TimeUnit.MILLISECONDS.toNanos(maxIdleMs);
+
+        this.connectionsOpened = Counter.builder("auth.email.smtp.connections.opened")
+                .description("SMTP connections opened")
+                .register(meterRegistry);
+        Gauge.builder("auth.email.smtp.connections.idle", idle, BlockingQueue::size)
+                .description("Open SMTP connections waiting in the pool")
+                .register(meterRegistry);
+    }
+
+    public void send(MimeMessage message) throws MessagingException {
+        message.setSentDate(new Date());
+        message.saveChanges();
+
+        PooledTransport transport = borrow();
+        try {
+            transport.send(message);
+        } catch (SendFailedException e) {
+            // Rejected recipients are not a connection problem
+            release(transport);
+            throw e;
+        } catch (MessagingException e) {
+            transport.close();
+            if (transport.messagesSent == 0) {
+                throw e;
+            }
+            log.debug("Pooled SMTP connection failed, retrying on a fresh one: {}", e.getMessage());
+            transport = open();
+            try {
+                transport.send(message);
+            } catch (MessagingException retryFailure) {
+                transport.close();
+                throw retryFailure;
+            }
+        }
+        release(transport);
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        PooledTransport transport;
+        while ((transport = idle.poll()) != null) {
+            if (transport.isReusable()) {
+                return transport;
+            }
+            transport.close();
+        }
+        return open();
+    }
+
+    private void release(PooledTransport transport) {
+        transport.lastUsedAt = System.nanoTime();
+        if (transport.messagesSent >= maxMessagesPerConnection || !idle.offer(transport)) {
+            transport.close();
+        }
+    }
+
+    private PooledTransport open() throws MessagingException {
+        Transport transport = mailSender.getSession().getTransport(mailSender.getProtocol());
+        transport.connect(
+                mailSender.getHost(),
+                mailSender.getPort(),
+                StringUtils.hasLength(mailSender.getUsername()) ? mailSender.getUsername() : null,
+                StringUtils.hasLength(mailSender.getPassword()) ? mailSender.getPassword() : null);
+        connectionsOpened.increment();
+        return new PooledTransport(transport);
+    }
+
+    @PreDestroy
+    public void close() {
+        PooledTransport transport;
+        while ((transport = idle.poll()) != null) {
+            transport.close();
+        }
+    }
+
+    private final class PooledTransport {
+
+        private final Transport transport;
+        private int messagesSent;
+        private long lastUsedAt = System.nanoTime();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        private void send(MimeMessage message) throws MessagingException {
+            transport.sendMessage(message, message.getAllRecipients());
+            messagesSent++;
+        }
+
+        private boolean isReusable() {
+            return System.nanoTime() - lastUsedAt < maxIdleNanos && transport.isConnected();
+        }
+
+        private void close() {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                log.debug("Failed to close SMTP connection: {}", e.getMessage());
+            }
+        }
+    }
+}
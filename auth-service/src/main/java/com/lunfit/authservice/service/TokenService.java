@@ -2,16 +2,28 @@ package com.lunfit.authservice.service;
 
 import com.lunfit.authservice.entity.User;
 import com.lunfit.authservice.entity.VerificationToken;
+import com.lunfit.authservice.exception.AccountAlreadyVerifiedException;
+import com.lunfit.authservice.exception.AuthException;
+import com.lunfit.authservice.exception.InvalidTokenException;
 import com.lunfit.authservice.exception.TokenExpiredException;
+import com.lunfit.authservice.repository.UserRepository;
 import com.lunfit.authservice.repository.VerificationTokenRepository;
+import com.lunfit.authservice.security.VerificationLinkSigner;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Base64;
+import java.util.HexFormat;
 
 @Slf4j
 @Service
@@ -19,52 +31,163 @@ import java.util.Base64;
 public class TokenService {
 
     private final VerificationTokenRepository verificationTokenRepository;
+    private final UserRepository userRepository;
+    private final VerificationLinkSigner verificationLinkSigner;
     private static final SecureRandom secureRandom = new SecureRandom();
 
+    /**
+     * {@code table} stores a random token per link in verification_tokens;
+     * {@code signed} issues stateless HMAC-signed links. Both formats are always
+     * accepted when verifying, so the mode can be switched without breaking
+     * links already sent.
+     */
+    public enum VerificationLinkMode {
+        TABLE, SIGNED
+    }
+
+    @Value("${app.verification-links.mode:table}")
+    private VerificationLinkMode verificationLinkMode;
+
+    @Value("${app.verification-token-expiry:3600}")
+    private long verificationTokenExpirySeconds;
+
+    @Value("${app.verification-tokens.partitions.retention-days:7}")
+    private int tokenRetentionDays;
+
+    @PostConstruct
+    void checkConfiguration() {
+        if (verificationLinkMode == VerificationLinkMode.SIGNED && !verificationLinkSigner.isConfigured()) {
+            throw new IllegalStateException(
+                    "app.verification-links.mode=signed requires app.verification-links.secret");
+        }
+        log.info("Verification links are issued in {} mode", verificationLinkMode);
+    }
+
     public String generateSecureToken() {
         byte[] randomBytes = new byte[32];
         secureRandom.nextBytes(randomBytes);
         return Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
     }
 
+    /**
+     * One-way digest used to store opaque tokens, such as refresh tokens, at rest.
+     */
+    public String hashToken(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     @Transactional
     public VerificationToken createVerificationToken(User user) {
         String token = generateSecureToken();
+        LocalDateTime now = LocalDateTime.now();
 
         VerificationToken verificationToken = VerificationToken.builder()
                 .user(user)
                 .token(token)
                 .tokenType(VerificationToken.TokenType.EMAIL_VERIFICATION)
                 .status(VerificationToken.TokenStatus.VALID)
-                .createdAt(LocalDateTime.now())
-                .expiresAt(LocalDateTime.now().plusHours(1))
+                .createdAt(now)
+                .expiresAt(now.plusSeconds(verificationTokenExpirySeconds))
                 .build();
 
         log.info("Created verification token for user: {}", user.getEmail());
         return verificationTokenRepository.save(verificationToken);
     }
 
-    public VerificationToken validateVerificationToken(String token) {
-        VerificationToken verificationToken = verificationTokenRepository.findByToken(token)
-                .orElseThrow(() -> new IllegalArgumentException("Invalid verification token"));
+    /**
+     * Issues the verification token for a newly registered user.
+     */
+    @Transactional
+    public String issueVerificationToken(User user) {
+        if (verificationLinkMode == VerificationLinkMode.SIGNED) {
+            return signVerificationToken(user.getId(), user.getVerificationNonce());
+        }
+        return createVerificationToken(user).getToken();
+    }
 
-        if (verificationToken.getStatus() == VerificationToken.TokenStatus.USED) {
-            throw new IllegalArgumentException("This verification link has already been used");
+    /**
+     * Issues a new verification token and invalidates the user's previous ones.
+     *
+     * @throws AccountAlreadyVerifiedException if the user was verified in the meantime
+     */
+    @Transactional
+    public String reissueVerificationToken(User user) {
+        // Previously issued links stop working, whichever format they were issued in.
+        // The nonce is bumped in place rather than through the entity, whose flush
+        // would write back a stale email_verified if a verification raced this resend.
+        int nonce = userRepository.bumpVerificationNonce(user.getId())
+                .orElseThrow(() -> new AccountAlreadyVerifiedException("This account has already been verified"));
+        deleteUserTokens(user.getId(), VerificationToken.TokenStatus.VALID);
+        if (verificationLinkMode == VerificationLinkMode.SIGNED) {
+            return signVerificationToken(user.getId(), nonce);
         }
+        return createVerificationToken(user).getToken();
+    }
 
-        if (verificationToken.isExpired()) {
+    private String signVerificationToken(Long userId, int nonce) {
+        long expiresAt = Instant.now().getEpochSecond() + verificationTokenExpirySeconds;
+        return verificationLinkSigner.sign(userId, expiresAt, nonce);
+    }
+
+    /**
+     * Consumes an email verification token and activates its user.
+     *
+     * @return the verified user's email
+     * @throws InvalidTokenException if the token is unknown or already used
+     * @throws TokenExpiredException if the token has expired
+     */
+    @Transactional
+    public String consumeVerificationToken(String token) {
+        if (VerificationLinkSigner.isSigned(token)) {
+            return consumeSignedVerificationToken(token);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return verificationTokenRepository
+                .consumeAndActivate(token, now.minusSeconds(verificationTokenExpirySeconds), now)
+                .orElseThrow(() -> rejectionFor(token));
+    }
+
+    private String consumeSignedVerificationToken(String token) {
+        VerificationLinkSigner.Payload payload = verificationLinkSigner.verify(token)
+                .orElseThrow(() -> new InvalidTokenException("Invalid verification token"));
+
+        if (Instant.now().getEpochSecond() >= payload.expiresAtEpochSecond()) {
             throw new TokenExpiredException("Verification link has expired. Please request a new one.");
         }
 
-        return verificationToken;
+        return userRepository.activateWithNonce(payload.userId(), payload.nonce(), LocalDateTime.now())
+                .orElseThrow(() -> userRepository.findById(payload.userId())
+                        .filter(user -> Boolean.TRUE.equals(user.getEmailVerified()))
+                        .<AuthException>map(user ->
+                                new InvalidTokenException("This verification link has already been used"))
+                        .orElseGet(() -> new InvalidTokenException("Invalid verification token")));
     }
 
-    @Transactional
-    public void invalidateToken(VerificationToken token) {
-        token.setStatus(VerificationToken.TokenStatus.USED);
-        token.setUsedAt(LocalDateTime.now());
-        verificationTokenRepository.save(token);
-        log.info("Invalidated token for user: {}", token.getUser().getEmail());
+    /**
+     * Only reached when consumption failed; reads the token to explain why.
+     */
+    private AuthException rejectionFor(String token) {
+        VerificationToken verificationToken = verificationTokenRepository.findByTokenAndCreatedAtAfter(
+                token, LocalDateTime.now().minusDays(tokenRetentionDays)).orElse(null);
+
+        if (verificationToken == null) {
+            return new InvalidTokenException("Invalid verification token");
+        }
+
+        if (verificationToken.getStatus() == VerificationToken.TokenStatus.USED) {
+            return new InvalidTokenException("This verification link has already been used");
+        }
+
+        if (verificationToken.isExpired()) {
+            return new TokenExpiredException("Verification link has expired. Please request a new one.");
+        }
+
+        return new InvalidTokenException("Invalid verification token");
     }
 
     @Transactional
@@ -2,6 +2,7 @@ package com.lunfit.authservice.service.impl;
 
 import com.lunfit.authservice.dto.LoginRequest;
 import com.lunfit.authservice.dto.LoginResponse;
+import com.lunfit.authservice.dto.RefreshTokenRequest;
 import com.lunfit.authservice.dto.RegisterRequest;
 import com.lunfit.authservice.dto.RegisterResponse;
 import com.lunfit.authservice.dto.ResendVerificationRequest;
@@ -9,7 +10,6 @@ import com.lunfit.authservice.dto.ResendVerificationResponse;
 import com.lunfit.authservice.dto.VerifyEmailResponse;
 import com.lunfit.authservice.entity.AuthCredential;
 import com.lunfit.authservice.entity.User;
-import com.lunfit.authservice.entity.VerificationToken;
 import com.lunfit.authservice.exception.AccountAlreadyVerifiedException;
 import com.lunfit.authservice.exception.EmailAlreadyExistsException;
 import com.lunfit.authservice.exception.InvalidCredentialsException;
@@ -19,16 +19,28 @@ import com.lunfit.authservice.exception.VerificationRequiredException;
 import com.lunfit.authservice.repository.AuthCredentialRepository;
 import com.lunfit.authservice.repository.UserRepository;
 import com.lunfit.authservice.repository.VerificationTokenRepository;
+import com.lunfit.authservice.repository.projection.LoginCandidate;
+import com.lunfit.authservice.repository.projection.SessionOwnerView;
+import com.lunfit.authservice.security.CredentialStuffingShield;
 import com.lunfit.authservice.service.AuthService;
-import com.lunfit.authservice.service.EmailService;
+import com.lunfit.authservice.service.EmailExistenceFilter;
+import com.lunfit.authservice.service.EmailOutboxService;
 import com.lunfit.authservice.service.JwtService;
+import com.lunfit.authservice.service.LoginActivityBuffer;
+import com.lunfit.authservice.service.LoginMetrics;
+import com.lunfit.authservice.service.LoginMetrics.Outcome;
+import com.lunfit.authservice.service.LoginMetrics.Phase;
+import com.lunfit.authservice.service.PasswordHashingService;
+import com.lunfit.authservice.service.RateLimitService;
+import com.lunfit.authservice.service.SessionService;
 import com.lunfit.authservice.service.TokenService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 
@@ -37,51 +49,68 @@ import java.time.LocalDateTime;
 @RequiredArgsConstructor
 public class AuthServiceImpl implements AuthService {
 
+    private static final String USERS_EMAIL_UNIQUE_CONSTRAINT = "users_email_key";
+
     private final UserRepository userRepository;
     private final AuthCredentialRepository authCredentialRepository;
     private final VerificationTokenRepository verificationTokenRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final TokenService tokenService;
-    private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
     private final JwtService jwtService;
-
-    @Value("${app.max-resend-attempts:5}")
-    private int maxResendAttempts;
-
-    @Value("${app.resend-window-hours:24}")
-    private int resendWindowHours;
-
+    private final SessionService sessionService;
+    private final LoginActivityBuffer loginActivityBuffer;
+    private final RateLimitService rateLimitService;
+    private final CredentialStuffingShield credentialStuffingShield;
+    private final EmailExistenceFilter emailExistenceFilter;
+    private final LoginMetrics loginMetrics;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Not transactional as a whole: the rate limit check and BCrypt run before a
+     * connection is taken, and only the inserts run in a transaction.
+     */
     @Override
-    @Transactional
-    public RegisterResponse register(RegisterRequest request) {
-        String email = request.getEmail().toLowerCase().trim();
-
-        // Check if email already exists
-        if (userRepository.existsByEmail(email)) {
-            throw new EmailAlreadyExistsException("An account with this email already exists");
-        }
-
-        // Create user
-        User user = User.builder()
-                .email(email)
-                .status(User.UserStatus.PENDING)
-                .emailVerified(false)
-                .build();
-        user = userRepository.save(user);
-
-        // Hash password and create auth credential
-        String passwordHash = passwordEncoder.encode(request.getPassword());
-        AuthCredential authCredential = AuthCredential.builder()
-                .user(user)
-                .passwordHash(passwordHash)
-                .build();
-        authCredentialRepository.save(authCredential);
+    public RegisterResponse register(RegisterRequest request, String clientIp) {
+        rateLimitService.checkRegister(clientIp);
 
-        // Create verification token
-        VerificationToken verificationToken = tokenService.createVerificationToken(user);
+        String email = request.getEmail().toLowerCase().trim();
 
-        // Send verification email asynchronously
-        emailService.sendVerificationEmail(user, verificationToken.getToken());
+        // Hash password on the dedicated hashing engine; no connection is held yet
+        String passwordHash = passwordHashingService.encode(request.getPassword());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // Create user
+            User user = User.builder()
+                    .email(email)
+                    .status(User.UserStatus.PENDING)
+                    .emailVerified(false)
+                    .build();
+            user = userRepository.save(user);
+
+            // Create auth credential
+            AuthCredential authCredential = AuthCredential.builder()
+                    .user(user)
+                    .passwordHash(passwordHash)
+                    .build();
+            authCredentialRepository.save(authCredential);
+
+            // Issue verification token and queue the email in the same transaction
+            String verificationToken = tokenService.issueVerificationToken(user);
+            emailOutboxService.enqueueVerificationEmail(user, verificationToken);
+
+            // Ids come from pooled sequences, so the inserts are sent together here.
+            // The unique constraint on users.email is the duplicate check.
+            try {
+                userRepository.flush();
+            } catch (DataIntegrityViolationException e) {
+                if (isDuplicateEmail(e)) {
+                    throw new EmailAlreadyExistsException("An account with this email already exists");
+                }
+                throw e;
+            }
+            emailExistenceFilter.addAfterCommit(email);
+        });
 
         log.info("User registered successfully: {}", email);
 
@@ -95,58 +124,45 @@ public class AuthServiceImpl implements AuthService {
     @Override
     @Transactional
     public VerifyEmailResponse verifyEmail(String token) {
-        // Validate token (throws exception if invalid, expired, or used)
-        VerificationToken verificationToken = tokenService.validateVerificationToken(token);
-
-        User user = verificationToken.getUser();
-
-        // Update user status
-        user.setStatus(User.UserStatus.ACTIVE);
-        user.setEmailVerified(true);
-        user.setVerifiedAt(LocalDateTime.now());
-        userRepository.save(user);
+        // Consume the token and activate the user in one conditional statement;
+        // a token can only ever be consumed once, even by concurrent requests
+        String email = tokenService.consumeVerificationToken(token);
 
-        // Mark token as used
-        tokenService.invalidateToken(verificationToken);
-
-        log.info("Email verified successfully for user: {}", user.getEmail());
+        log.info("Email verified successfully for user: {}", email);
 
         return VerifyEmailResponse.builder()
                 .message("Email verified successfully! You can now log in to your account.")
-                .email(user.getEmail())
+                .email(email)
                 .build();
     }
 
+    /**
+     * Not transactional as a whole, for the same reason as {@link #register}: the
+     * rate limit check commits on its own before the resend transaction starts.
+     */
     @Override
-    @Transactional
-    public ResendVerificationResponse resendVerificationEmail(ResendVerificationRequest request) {
+    public ResendVerificationResponse resendVerificationEmail(ResendVerificationRequest request, String clientIp) {
         String email = request.getEmail().toLowerCase().trim();
 
-        // Find user
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        // Check rate limiting before touching the database
+        rateLimitService.checkResend(email, clientIp);
 
-        // Check if already verified
-        if (Boolean.TRUE.equals(user.getEmailVerified())) {
-            throw new AccountAlreadyVerifiedException("This account has already been verified");
-        }
-
-        // Check rate limiting
-        checkResendRateLimit(user);
-
-        // Delete old valid tokens for this user
-        tokenService.deleteUserTokens(user.getId(), VerificationToken.TokenStatus.VALID);
+        transactionTemplate.executeWithoutResult(status -> {
+            // Find user
+            User user = userRepository.findByEmail(email)
+                    .orElseThrow(() -> new UserNotFoundException("User not found"));
 
-        // Create new verification token
-        VerificationToken newToken = tokenService.createVerificationToken(user);
+            // Check if already verified
+            if (Boolean.TRUE.equals(user.getEmailVerified())) {
+                throw new AccountAlreadyVerifiedException("This account has already been verified");
+            }
 
-        // Update resend tracking
-        user.setResendCount(user.getResendCount() + 1);
-        user.setLastResendAt(LocalDateTime.now());
-        userRepository.save(user);
+            // Issue a new verification token, invalidating the previous ones
+            String newToken = tokenService.reissueVerificationToken(user);
 
-        // Send verification email asynchronously
-        emailService.sendVerificationEmail(user, newToken.getToken());
+            // Queue verification email; it is only sent if this transaction commits
+            emailOutboxService.enqueueVerificationEmail(user, newToken);
+        });
 
         log.info("Verification email resent to: {}", email);
 
@@ -156,47 +172,80 @@ public class AuthServiceImpl implements AuthService {
                 .build();
     }
 
+    /**
+     * Deliberately not transactional: the account is read with one auto-committed
+     * query, hashing runs without holding a connection, and only state that
+     * actually changed is written back. Bookkeeping goes through the write-behind
+     * {@link LoginActivityBuffer}.
+     */
     @Override
-    @Transactional
-    public LoginResponse login(LoginRequest request) {
-        String email = request.getEmail().toLowerCase().trim();
+    public LoginResponse login(LoginRequest request, String clientIp) {
+        try {
+            rateLimitService.checkLogin(clientIp);
+        } catch (RateLimitExceededException e) {
+            loginMetrics.outcome(Outcome.RATE_LIMITED);
+            throw e;
+        }
 
-        // Find user by email
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new InvalidCredentialsException("Invalid email or password"));
+        String email = request.getEmail().toLowerCase().trim();
 
-        // Check if email is verified
-        if (!Boolean.TRUE.equals(user.getEmailVerified())) {
-            throw new VerificationRequiredException("Please verify your email before logging in");
+        // Turn away sources with many recent failures before any database or BCrypt work
+        CredentialStuffingShield.Source source = credentialStuffingShield.source(clientIp);
+        if (credentialStuffingShield.isBlocked(source, email)) {
+            loginMetrics.outcome(Outcome.BLOCKED);
+            throw new RateLimitExceededException("Too many failed login attempts. Please try again later.");
         }
 
-        // Get auth credentials
-        AuthCredential authCredential = authCredentialRepository.findByUserId(user.getId())
-                .orElseThrow(() -> new InvalidCredentialsException("Invalid email or password"));
+        // Find user and credentials in one query, unless the email is certainly not registered
+        LoginCandidate candidate = emailExistenceFilter.mightContain(email)
+                ? loginMetrics.time(Phase.LOOKUP,
+                        () -> authCredentialRepository.findLoginCandidateByEmail(email).orElse(null))
+                : null;
+        if (candidate == null) {
+            // Spend the same BCrypt time as a wrong password so timing does not reveal registered emails
+            loginMetrics.time(Phase.PASSWORD_MATCH, () -> passwordHashingService.matchDecoy(request.getPassword()));
+            credentialStuffingShield.recordFailure(source, email);
+            loginMetrics.outcome(Outcome.UNKNOWN_EMAIL);
+            throw new InvalidCredentialsException("Invalid email or password");
+        }
 
         // Validate password
-        if (!passwordEncoder.matches(request.getPassword(), authCredential.getPasswordHash())) {
+        boolean matches = loginMetrics.time(Phase.PASSWORD_MATCH,
+                () -> passwordHashingService.matches(request.getPassword(), candidate.passwordHash()));
+        if (!matches) {
+            credentialStuffingShield.recordFailure(source, email);
+            loginMetrics.outcome(Outcome.INVALID_CREDENTIALS);
             throw new InvalidCredentialsException("Invalid email or password");
         }
 
-        // Generate tokens
-        String accessToken = jwtService.generateAccessToken(user);
-        String refreshToken = jwtService.generateRefreshToken(user);
-
-        // Update refresh token and device info
-        authCredential.setRefreshToken(refreshToken);
-        authCredential.setRefreshTokenExpiry(
-                LocalDateTime.now().plusSeconds(jwtService.getAccessTokenExpiry() / 1000)
-        );
-        if (request.getDeviceInfo() != null) {
-            authCredential.setDeviceInfo(request.getDeviceInfo());
+        // Only checked after the password, so neither the answer nor its timing
+        // tells an unverified account apart from a wrong password
+        if (!Boolean.TRUE.equals(candidate.emailVerified())) {
+            loginMetrics.outcome(Outcome.UNVERIFIED);
+            throw new VerificationRequiredException("Please verify your email before logging in");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+
+        // Move the stored hash to the calibrated cost while we hold the plaintext
+        if (passwordHashingService.needsRehash(candidate.passwordHash())) {
+            loginMetrics.time(Phase.REHASH, () -> authCredentialRepository.updatePasswordHash(
+                    candidate.userId(), passwordHashingService.encode(request.getPassword()), now));
+            log.info("Rehashed password for user {} at the calibrated cost", candidate.userId());
         }
-        authCredentialRepository.save(authCredential);
 
-        // Update last login timestamp
-        user.setLastLoginAt(LocalDateTime.now());
-        userRepository.save(user);
+        // Generate tokens and open (or replace) the session for this device
+        String accessToken = loginMetrics.time(Phase.TOKEN_ISSUE,
+                () -> jwtService.generateAccessToken(candidate.userId(), candidate.email(), candidate.status()));
+        String refreshToken = loginMetrics.time(Phase.SESSION_PERSIST,
+                () -> sessionService.issue(candidate.userId(), request.getDeviceId(), request.getDeviceInfo()));
+
+        // Last login and changed device info are written behind, off the request path
+        String changedDeviceInfo = request.getDeviceInfo() != null
+                && !request.getDeviceInfo().equals(candidate.deviceInfo()) ? request.getDeviceInfo() : null;
+        loginActivityBuffer.record(candidate.userId(), now, changedDeviceInfo);
 
+        loginMetrics.outcome(Outcome.SUCCESS);
         log.info("User logged in successfully: {}", email);
 
         return LoginResponse.builder()
@@ -207,21 +256,33 @@ public class AuthServiceImpl implements AuthService {
                 .build();
     }
 
-    private void checkResendRateLimit(User user) {
-        LocalDateTime windowStart = LocalDateTime.now().minusHours(resendWindowHours);
-
-        // If last resend was outside the window, reset counter
-        if (user.getLastResendAt() == null || user.getLastResendAt().isBefore(windowStart)) {
-            user.setResendCount(0);
-            return;
+    @Override
+    public LoginResponse refresh(RefreshTokenRequest request) {
+        SessionOwnerView session = sessionService.findActiveSession(request.getRefreshToken());
+        if (session.status() != User.UserStatus.ACTIVE) {
+            throw new InvalidCredentialsException("Invalid refresh token");
         }
 
-        // Check if limit exceeded
-        if (user.getResendCount() >= maxResendAttempts) {
-            throw new RateLimitExceededException(
-                    String.format("Maximum resend attempts (%d) exceeded. Please try again after %d hours.",
-                            maxResendAttempts, resendWindowHours)
-            );
-        }
+        // Rotate: the presented token becomes the "previous" one and stops working
+        String refreshToken = sessionService.rotate(session.sessionId(), request.getRefreshToken());
+
+        log.info("Refresh token rotated for user: {}", session.userId());
+
+        return LoginResponse.builder()
+                .accessToken(jwtService.generateAccessToken(session.userId(), session.email(), session.status()))
+                .refreshToken(refreshToken)
+                .tokenType("Bearer")
+                .expiresIn(jwtService.getAccessTokenExpiry() / 1000)
+                .build();
+    }
+
+    @Override
+    public void logout(RefreshTokenRequest request) {
+        sessionService.revokeByRefreshToken(request.getRefreshToken());
+    }
+
+    private static boolean isDuplicateEmail(DataIntegrityViolationException e) {
+        return e.getCause() instanceof ConstraintViolationException violation
+                && USERS_EMAIL_UNIQUE_CONSTRAINT.equalsIgnoreCase(violation.getConstraintName());
     }
 }
@@ -0,0 +1,2 @@
+-- Supports the incremental sync of the in-memory email existence filter
+CREATE INDEX idx_users_created_at ON users(created_at);
@@ -0,0 +1,3 @@
+ALTER TABLE users ADD COLUMN verification_nonce INTEGER NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN users.verification_nonce IS 'Bound into signed verification links; changes on verification and on resend so older links stop working';
@@ -0,0 +1,61 @@
+-- Range-partition verification_tokens by created_at (one partition per day) so that
+-- retention drops whole partitions instead of deleting rows. Existing rows go to a
+-- legacy partition; VerificationTokenPartitionMaintainer creates upcoming days and
+-- drops partitions older than the retention period.
+
+-- Keep the id sequence (pooled, INCREMENT BY 50) when the old table is dropped
+ALTER SEQUENCE verification_tokens_id_seq OWNED BY NONE;
+
+CREATE TABLE verification_tokens_partitioned (
+    id              BIGINT NOT NULL DEFAULT nextval('verification_tokens_id_seq'),
+    user_id         BIGINT NOT NULL,
+    token           VARCHAR(255) NOT NULL,
+    token_type      VARCHAR(50) NOT NULL DEFAULT 'EMAIL_VERIFICATION',
+    status          VARCHAR(20) NOT NULL DEFAULT 'VALID',
+    created_at      TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at      TIMESTAMP NOT NULL,
+    used_at         TIMESTAMP,
+
+    -- The partition key must be part of every unique constraint
+    CONSTRAINT pk_verification_tokens PRIMARY KEY (id, created_at),
+    CONSTRAINT fk_verification_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT chk_verification_token_type CHECK (token_type IN ('EMAIL_VERIFICATION', 'PASSWORD_RESET')),
+    CONSTRAINT chk_verification_status CHECK (status IN ('VALID', 'EXPIRED', 'USED'))
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE verification_tokens_legacy PARTITION OF verification_tokens_partitioned
+    FOR VALUES FROM (MINVALUE) TO (CURRENT_DATE);
+
+DO $$
+DECLARE
+    day DATE;
+BEGIN
+    FOR offset_days IN 0..7 LOOP
+        day := CURRENT_DATE + offset_days;
+        EXECUTE format(
+            'CREATE TABLE %I PARTITION OF verification_tokens_partitioned FOR VALUES FROM (%L) TO (%L)',
+            'verification_tokens_p' || to_char(day, 'YYYYMMDD'), day, day + 1);
+    END LOOP;
+END $$;
+
+-- No DEFAULT partition: it would rule out DETACH PARTITION ... CONCURRENTLY. The
+-- maintenance job runs hourly and keeps a week of partitions ahead.
+
+INSERT INTO verification_tokens_partitioned
+    (id, user_id, token, token_type, status, created_at, expires_at, used_at)
+SELECT id, user_id, token, token_type, status, created_at, expires_at, used_at
+  FROM verification_tokens;
+
+DROP TABLE verification_tokens;
+ALTER TABLE verification_tokens_partitioned RENAME TO verification_tokens;
+ALTER SEQUENCE verification_tokens_id_seq OWNED BY verification_tokens.id;
+
+-- Tokens are 256-bit random values, so uniqueness no longer needs enforcing (a unique
+-- index would have to include created_at). expires_at indexes are gone: retention is
+-- handled by dropping partitions.
+CREATE INDEX idx_verification_token ON verification_tokens(token);
+CREATE INDEX idx_verification_user ON verification_tokens(user_id);
+
+COMMENT ON TABLE verification_tokens IS 'Email verification and password reset tokens, partitioned by day of created_at';
+COMMENT ON COLUMN verification_tokens.token IS 'Cryptographically secure random token (URL-safe)';
+COMMENT ON COLUMN verification_tokens.expires_at IS 'Token expiration (created_at + 1 hour)';
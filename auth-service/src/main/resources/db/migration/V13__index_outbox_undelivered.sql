@@ -0,0 +1,3 @@
+-- FAILED and SUPERSEDED rows are never sent; they are purged by age once past retention
+CREATE INDEX idx_outbox_undelivered_created_at ON email_outbox(created_at)
+    WHERE status IN ('FAILED', 'SUPERSEDED');
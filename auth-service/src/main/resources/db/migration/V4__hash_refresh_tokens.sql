@@ -0,0 +1,12 @@
+-- Refresh tokens become opaque random values; only their SHA-256 digest (hex) is stored.
+-- Existing raw JWT refresh tokens are discarded, so affected clients log in once more.
+UPDATE auth_credentials SET refresh_token = NULL, refresh_token_expiry = NULL;
+
+ALTER TABLE auth_credentials ALTER COLUMN refresh_token TYPE VARCHAR(64);
+ALTER TABLE auth_credentials ADD COLUMN previous_refresh_token VARCHAR(64);
+
+CREATE INDEX idx_auth_previous_refresh_token ON auth_credentials(previous_refresh_token)
+    WHERE previous_refresh_token IS NOT NULL;
+
+COMMENT ON COLUMN auth_credentials.refresh_token IS 'SHA-256 digest (hex) of the current refresh token';
+COMMENT ON COLUMN auth_credentials.previous_refresh_token IS 'Digest of the refresh token rotated out last, used to detect reuse';
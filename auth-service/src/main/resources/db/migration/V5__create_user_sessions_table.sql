@@ -0,0 +1,40 @@
+CREATE TABLE user_sessions (
+    id                      BIGSERIAL PRIMARY KEY,
+    user_id                 BIGINT NOT NULL,
+    device_id               VARCHAR(100) NOT NULL,
+    device_info             VARCHAR(500),
+    refresh_token           VARCHAR(64) NOT NULL,
+    previous_refresh_token  VARCHAR(64),
+    created_at              TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_used_at            TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at              TIMESTAMP NOT NULL,
+
+    CONSTRAINT fk_session_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT uq_session_user_device UNIQUE (user_id, device_id)
+);
+
+-- uq_session_user_device also serves per-user listing and trimming
+CREATE UNIQUE INDEX idx_session_refresh_token ON user_sessions(refresh_token);
+CREATE INDEX idx_session_previous_refresh_token ON user_sessions(previous_refresh_token)
+    WHERE previous_refresh_token IS NOT NULL;
+CREATE INDEX idx_session_expires ON user_sessions(expires_at);
+
+-- Carry over the single session each user had so nobody is logged out by the migration
+INSERT INTO user_sessions (user_id, device_id, device_info, refresh_token, previous_refresh_token,
+                           created_at, last_used_at, expires_at)
+SELECT user_id, 'default', device_info, refresh_token, previous_refresh_token,
+       updated_at, updated_at, refresh_token_expiry
+FROM auth_credentials
+WHERE refresh_token IS NOT NULL AND refresh_token_expiry IS NOT NULL;
+
+DROP INDEX idx_auth_refresh_token;
+DROP INDEX idx_auth_previous_refresh_token;
+ALTER TABLE auth_credentials
+    DROP COLUMN refresh_token,
+    DROP COLUMN refresh_token_expiry,
+    DROP COLUMN previous_refresh_token;
+
+COMMENT ON TABLE user_sessions IS 'One refresh-token session per user and device';
+COMMENT ON COLUMN user_sessions.device_id IS 'Client-supplied device identifier, or derived from device info';
+COMMENT ON COLUMN user_sessions.refresh_token IS 'SHA-256 digest (hex) of the current refresh token';
+COMMENT ON COLUMN user_sessions.previous_refresh_token IS 'Digest of the refresh token rotated out last, used to detect reuse';
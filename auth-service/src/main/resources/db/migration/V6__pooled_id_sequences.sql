@@ -0,0 +1,6 @@
+-- Hibernate now allocates ids from these sequences in blocks of 50 (pooled optimizer)
+-- instead of relying on IDENTITY, which disables JDBC insert batching.
+-- The column defaults keep working; they simply skip ahead by 50.
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE auth_credentials_id_seq INCREMENT BY 50;
+ALTER SEQUENCE verification_tokens_id_seq INCREMENT BY 50;
@@ -0,0 +1,28 @@
+CREATE TABLE email_outbox (
+    id                  BIGSERIAL PRIMARY KEY,
+    user_id             BIGINT NOT NULL,
+    recipient           VARCHAR(254) NOT NULL,
+    email_type          VARCHAR(50) NOT NULL,
+    payload             VARCHAR(512) NOT NULL,
+    status              VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    attempts            INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at     TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    created_at          TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at             TIMESTAMP,
+    last_error          VARCHAR(500),
+
+    CONSTRAINT fk_outbox_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT chk_outbox_email_type CHECK (email_type IN ('VERIFICATION')),
+    CONSTRAINT chk_outbox_status CHECK (status IN ('PENDING', 'SENT', 'FAILED'))
+);
+
+-- The dispatcher only ever scans due PENDING rows
+CREATE INDEX idx_outbox_pending_due ON email_outbox(next_attempt_at) WHERE status = 'PENDING';
+CREATE INDEX idx_outbox_sent_at ON email_outbox(sent_at) WHERE status = 'SENT';
+
+-- Ids are allocated by Hibernate's pooled optimizer, like the other entity tables
+ALTER SEQUENCE email_outbox_id_seq INCREMENT BY 50;
+
+COMMENT ON TABLE email_outbox IS 'Transactional outbox of emails, written with the business change and sent by a dispatcher';
+COMMENT ON COLUMN email_outbox.payload IS 'Template input, e.g. the verification token';
+COMMENT ON COLUMN email_outbox.next_attempt_at IS 'When the row is next due; pushed forward while claimed (lease) and on retry (backoff)';
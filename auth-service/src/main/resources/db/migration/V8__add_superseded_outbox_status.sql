@@ -0,0 +1,6 @@
+-- Queued verification emails are collapsed to the newest one per user
+ALTER TABLE email_outbox DROP CONSTRAINT chk_outbox_status;
+ALTER TABLE email_outbox ADD CONSTRAINT chk_outbox_status
+    CHECK (status IN ('PENDING', 'SENT', 'FAILED', 'SUPERSEDED'));
+
+CREATE INDEX idx_outbox_pending_user ON email_outbox(user_id, email_type) WHERE status = 'PENDING';
@@ -0,0 +1,12 @@
+-- Resend limits moved to the rate limiter; the per-user counters are no longer written
+ALTER TABLE users DROP COLUMN resend_count;
+ALTER TABLE users DROP COLUMN last_resend_at;
+
+-- Backing store for app.rate-limit.store=jdbc
+CREATE TABLE rate_limit_buckets (
+    bucket_key          VARCHAR(400) PRIMARY KEY,
+    arrival_micros      BIGINT NOT NULL
+);
+
+COMMENT ON TABLE rate_limit_buckets IS 'Token buckets (GCRA) shared by all instances when the rate limiter is DB-backed';
+COMMENT ON COLUMN rate_limit_buckets.arrival_micros IS 'Theoretical arrival time in epoch microseconds; a bucket in the past is full';
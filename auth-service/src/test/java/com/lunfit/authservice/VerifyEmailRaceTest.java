@@ -0,0 +1,154 @@
+package com.lunfit.authservice;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+/**
+ * Many concurrent GET /verify requests for one token: exactly one succeeds, the
+ * others are told the link was used, and none fails with a 5xx. Runs against an
+ * embedded PostgreSQL, since the guarantee comes from the conditional UPDATE.
+ * Missing, blank and malformed tokens must be client errors as well.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class VerifyEmailRaceTest {
+
+    private static final int CONCURRENT_VERIFIES = 16;
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void requireNonRoot() {
+        assumeFalse("root".equals(System.getProperty("user.name")), "PostgreSQL refuses to start as root");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) throws IOException, GeneralSecurityException {
+        if (postgres == null) {
+            postgres = EmbeddedPostgres.builder().start();
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("management.server.port", () -> "0");
+        // Keeps the outbox rows pending so the token can be read back; nothing is mailed
+        registry.add("app.email.outbox.poll-interval-ms", () -> "3600000");
+
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair pair = generator.generateKeyPair();
+        registry.add("jwt.keys[0].kid", () -> "test");
+        registry.add("jwt.keys[0].private-key", () -> Base64.getEncoder().encodeToString(pair.getPrivate().getEncoded()));
+        registry.add("jwt.keys[0].public-key", () -> Base64.getEncoder().encodeToString(pair.getPublic().getEncoded()));
+    }
+
+    @Test
+    void tableTokenIsConsumedOnce() throws Exception {
+        assertSingleUse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "?token=", "?token=%20", "?token=not-a-token", "?token=abc.def.ghi", "?token=%00%FF"})
+    void rejectedTokenIsClientError(String query) {
+        ResponseEntity<String> response = restTemplate.getForEntity("/api/v1/auth/verify" + query, String.class);
+
+        assertThat(response.getStatusCode()).as(response.getBody()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).contains("\"path\":\"/api/v1/auth/verify\"");
+    }
+
+    @Nested
+    @TestPropertySource(properties = {
+            "app.verification-links.mode=signed",
+            "app.verification-links.secret=verify-race-test-secret"
+    })
+    class SignedLinks {
+
+        @Test
+        void signedLinkIsConsumedOnce() throws Exception {
+            assertSingleUse();
+        }
+    }
+
+    private void assertSingleUse() throws Exception {
+        String email = "race-" + UUID.randomUUID() + "@example.com";
+        ResponseEntity<String> registered = restTemplate.postForEntity("/api/v1/auth/register",
+                Map.of("email", email, "password", "RaceTest1!"), String.class);
+        assertThat(registered.getStatusCode()).as(registered.getBody()).isEqualTo(HttpStatus.CREATED);
+        String token = jdbcTemplate.queryForObject(
+                "SELECT payload FROM email_outbox WHERE recipient = ?", String.class, email);
+
+        List<HttpStatusCode> statuses = verifyConcurrently(token);
+
+        assertThat(statuses).filteredOn(HttpStatus.OK::equals).hasSize(1);
+        assertThat(statuses).filteredOn(status -> !HttpStatus.OK.equals(status))
+                .allMatch(HttpStatus.BAD_REQUEST::equals);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT email_verified FROM users WHERE email = ?", Boolean.class, email)).isTrue();
+    }
+
+    private List<HttpStatusCode> verifyConcurrently(String token) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<HttpStatusCode>> responses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_VERIFIES)) {
+            for (int i = 0; i < CONCURRENT_VERIFIES; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return restTemplate.getForEntity("/api/v1/auth/verify?token={token}", String.class, token)
+                            .getStatusCode();
+                }));
+            }
+            start.countDown();
+
+            List<HttpStatusCode> statuses = new ArrayList<>();
+            for (Future<HttpStatusCode> response : responses) {
+                statuses.add(response.get());
+            }
+            return statuses;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.lunfit.authservice.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CredentialStuffingShieldTest {
+
+    // One decay window of a wave at well over 1000 failed logins/s
+    private static final int WAVE_FAILURES = 100_000;
+    private static final int TARGETED_EMAILS = 1_000;
+
+    private final Random random = new Random(42);
+
+    private final CredentialStuffingShield shield = new CredentialStuffingShield(
+            new SimpleMeterRegistry(), true, 4, 16384, 256, 20, 100, 10, 3);
+
+    @Test
+    void distributedWaveDoesNotBlockOtherSources() {
+        for (int i = 0; i < WAVE_FAILURES; i++) {
+            shield.recordFailure(shield.source(randomIp()), targetedEmail(i));
+        }
+
+        int blocked = 0;
+        for (int i = 0; i < 1_000; i++) {
+            // Half log in to accounts the wave is hammering, from their own address
+            String email = i % 2 == 0 ? targetedEmail(i) : "user" + i + "@example.com";
+            if (shield.isBlocked(shield.source(randomIp()), email)) {
+                blocked++;
+            }
+        }
+        assertThat(blocked).isZero();
+    }
+
+    @Test
+    void repeatOffenderInsideWaveIsBlocked() {
+        CredentialStuffingShield.Source offender = shield.source("203.0.113.7");
+        for (int i = 0; i < WAVE_FAILURES; i++) {
+            shield.recordFailure(shield.source(randomIp()), targetedEmail(i));
+            if (i >= WAVE_FAILURES - 1_000 && i % 40 == 0) {
+                shield.recordFailure(offender, targetedEmail(i));
+            }
+        }
+
+        assertThat(shield.isBlocked(offender, "someone@example.com")).isTrue();
+        assertThat(shield.isBlocked(shield.source("203.0.113.8"), "someone@example.com")).isFalse();
+    }
+
+    @Test
+    void networkCollapsesLiteralsOnly() {
+        assertThat(CredentialStuffingShield.network("192.168.10.77")).isEqualTo("192.168.10.0/24");
+        assertThat(CredentialStuffingShield.network("2001:db8:0:1:abcd::1")).isEqualTo("2001:db8:0:1::/64");
+        assertThat(CredentialStuffingShield.network("2001:DB8::1%eth0")).isEqualTo("2001:db8:0:0::/64");
+        assertThat(CredentialStuffingShield.network("::ffff:10.1.2.3")).isEqualTo("10.1.2.0/24");
+        assertThat(CredentialStuffingShield.network("::1")).isEqualTo("0:0:0:0::/64");
+
+        assertThat(CredentialStuffingShield.network("example.com")).isNull();
+        assertThat(CredentialStuffingShield.network("1.2.3")).isNull();
+        assertThat(CredentialStuffingShield.network("1.2.3.256")).isNull();
+        assertThat(CredentialStuffingShield.network("1::2::3")).isNull();
+        assertThat(CredentialStuffingShield.network("1:2:3:4:5:6:7:8:9")).isNull();
+    }
+
+    private String randomIp() {
+        int address = random.nextInt();
+        return (address >>> 24) + "." + (address >>> 16 & 0xff) + "." + (address >>> 8 & 0xff) + "." + (address & 0xff);
+    }
+
+    private static String targetedEmail(int i) {
+        return "victim" + i % TARGETED_EMAILS + "@example.com";
+    }
+}
@@ -0,0 +1,72 @@
+package com.lunfit.authservice.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lunfit.authservice.config.JwtConfig;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtKeyRingTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void publishesP256KeysWithFullCoordinates() throws Exception {
+        JwtKeyRing keyRing = keyRing(signingKey("k1", keyPair("secp256r1"), keyPair("secp256r1"), true));
+
+        JsonNode jwk = objectMapper.readTree(keyRing.jwks()).get("keys").get(0);
+        assertThat(jwk.get("crv").asText()).isEqualTo("P-256");
+        assertThat(Base64.getUrlDecoder().decode(jwk.get("x").asText())).hasSize(32);
+        assertThat(Base64.getUrlDecoder().decode(jwk.get("y").asText())).hasSize(32);
+    }
+
+    @Test
+    void rejectsKeysOnOtherCurves() throws Exception {
+        KeyPair p384 = keyPair("secp384r1");
+
+        assertThatThrownBy(() -> keyRing(signingKey("k1", p384, p384, true)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("not on P-256");
+    }
+
+    @Test
+    void rejectsMismatchedPair() throws Exception {
+        JwtConfig.SigningKey key = signingKey("k1", keyPair("secp256r1"), keyPair("secp256r1"), false);
+
+        assertThatThrownBy(() -> keyRing(key))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("do not match");
+    }
+
+    private JwtKeyRing keyRing(JwtConfig.SigningKey key) {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setKeys(List.of(key));
+        return new JwtKeyRing(jwtConfig, objectMapper, new StandardEnvironment());
+    }
+
+    /**
+     * @param matching whether the private key comes from {@code pair} or from {@code other}
+     */
+    private static JwtConfig.SigningKey signingKey(String kid, KeyPair pair, KeyPair other, boolean matching) {
+        JwtConfig.SigningKey key = new JwtConfig.SigningKey();
+        key.setKid(kid);
+        key.setPrivateKey(Base64.getEncoder().encodeToString((matching ? pair : other).getPrivate().getEncoded()));
+        key.setPublicKey(Base64.getEncoder().encodeToString(pair.getPublic().getEncoded()));
+        return key;
+    }
+
+    private static KeyPair keyPair(String curve) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec(curve));
+        return generator.generateKeyPair();
+    }
+}